@@ -0,0 +1,22 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.model.SmallEntity;
+import ch.bytecrowd.lazynerd.model.WideEntity;
+
+/**
+ * The entities used as benchmark {@code @Param}s
+ */
+public enum Entities {
+    SMALL(SmallEntity.class),
+    WIDE(WideEntity.class);
+
+    private final Class<?> entity;
+
+    Entities(Class<?> entity) {
+        this.entity = entity;
+    }
+
+    public Class<?> getEntity() {
+        return entity;
+    }
+}
@@ -0,0 +1,7 @@
+package ch.bytecrowd.lazynerd;
+
+/**
+ * The class whose synthetic source of increasing size is written by {@link UnitTestGeneratorBenchmark}
+ */
+public class GeneratedService {
+}
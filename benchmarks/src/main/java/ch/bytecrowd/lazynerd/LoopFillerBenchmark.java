@@ -0,0 +1,51 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.ParamProvider.EntityTypeField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoopFillerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private RenderContext context;
+
+    @Setup
+    public void setup() {
+        var fields = IntStream.range(0, size)
+                .mapToObj(i -> new EntityTypeField(
+                        "Bench",
+                        "String",
+                        "column" + i,
+                        "Column" + i,
+                        "COLUMN_" + i,
+                        "",
+                        ""
+                ))
+                .toList();
+        context = new RenderContext(Map.of(
+                "entityTypeSimpleName", "Bench",
+                "entityTypeFields", fields
+        ));
+    }
+
+    @Benchmark
+    public String fillUpLoops() {
+        return LoopFiller.fillUpLoops(Templates.GETTER_SETTER_EQUALS_AND_HASH_CODE, context);
+    }
+
+    @Benchmark
+    public String fillUpLoopsOfRestResourceIT() {
+        return LoopFiller.fillUpLoops(Templates.QUARKUS_REST_RESOURCE_IT, context);
+    }
+}
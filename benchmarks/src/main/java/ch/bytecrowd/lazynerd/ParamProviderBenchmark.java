@@ -0,0 +1,44 @@
+package ch.bytecrowd.lazynerd;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamProviderBenchmark {
+
+    @Param({"SMALL", "WIDE"})
+    public Entities entity;
+
+    private Class<?> clazz;
+
+    @Setup
+    public void setup() {
+        clazz = entity.getEntity();
+    }
+
+    /**
+     * the params as used by the templates, introspected once per class
+     */
+    @Benchmark
+    public Map<String, Object> paramsFromEntity() {
+        return ParamProvider.paramsFromEntity(clazz);
+    }
+
+    /**
+     * the uncached introspection of every field
+     */
+    @Benchmark
+    public void paramsFromEntityFields(Blackhole blackhole) {
+        for (var field : clazz.getDeclaredFields()) {
+            blackhole.consume(ParamProvider.paramsFromEntityField(clazz, field));
+        }
+    }
+}
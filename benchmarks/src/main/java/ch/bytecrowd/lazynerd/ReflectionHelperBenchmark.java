@@ -0,0 +1,31 @@
+package ch.bytecrowd.lazynerd;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionHelperBenchmark {
+
+    @Param({"SMALL", "WIDE"})
+    public Entities entity;
+
+    private Class<?> clazz;
+
+    @Setup
+    public void setup() {
+        clazz = entity.getEntity();
+    }
+
+    @Benchmark
+    public HashMap<String, Function<Object, Object>> getFieldsMap() {
+        return ReflectionHelper.getFieldsMap(clazz);
+    }
+}
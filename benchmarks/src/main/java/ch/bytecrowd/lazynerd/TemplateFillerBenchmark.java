@@ -0,0 +1,65 @@
+package ch.bytecrowd.lazynerd;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateFillerBenchmark {
+
+    @Param({
+            "GETTER_SETTER_EQUALS_AND_HASH_CODE",
+            "QUARKUS_REPOSITORY",
+            "QUARKUS_SERVICE",
+            "QUARKUS_SERVICE_IMPL",
+            "QUARKUS_REST_RESOURCE",
+            "QUARKUS_REST_RESOURCE_IT",
+            "QUARKUS_SERVICE_TEST"
+    })
+    public String templateName;
+
+    @Param({"SMALL", "WIDE"})
+    public Entities entity;
+
+    private final TemplateFiller templateFiller = new TemplateFiller();
+    private String template;
+    private CompiledTemplate compiledTemplate;
+    private ParamProvider paramProvider;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        template = (String) Templates.class.getField(templateName).get(null);
+        compiledTemplate = templateFiller.compile(template);
+        var clazz = entity.getEntity();
+        paramProvider = () -> ParamProvider.paramsFromEntity(clazz);
+    }
+
+    @Benchmark
+    public String fillUpTemplate() {
+        return templateFiller.fillUpTemplate(template, paramProvider);
+    }
+
+    @Benchmark
+    public String fillUpTemplateToAppendable() throws IOException {
+        var writer = new StringWriter(template.length());
+        templateFiller.fillUpTemplate(template, paramProvider, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String renderCompiledTemplate() {
+        return compiledTemplate.render(paramProvider);
+    }
+
+    @Benchmark
+    public CompiledTemplate compile() {
+        return templateFiller.compile(template);
+    }
+}
@@ -0,0 +1,106 @@
+package ch.bytecrowd.lazynerd;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitTestGeneratorBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int methods;
+
+    private Path sourcePath;
+    /**
+     * parses the source for every generation, its parse cache does not keep anything
+     */
+    private UnitTestGenerator generator;
+    /**
+     * parses the source once, every later generation is served by its parse cache
+     */
+    private UnitTestGenerator warmGenerator;
+
+    @Setup
+    public void setup() throws IOException {
+        sourcePath = Files.createTempDirectory("unitTestGeneratorBenchmark");
+        var sourceFile = sourcePath.resolve("ch/bytecrowd/lazynerd/GeneratedService.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, generatedServiceSource(methods));
+        generator = new UnitTestGenerator.Builder()
+                .clazz(GeneratedService.class)
+                .sourcePath(sourcePath.toString())
+                .parseCache(new ParseCache(0))
+                .build();
+        warmGenerator = new UnitTestGenerator.Builder()
+                .clazz(GeneratedService.class)
+                .sourcePath(sourcePath.toString())
+                .parseCache(new ParseCache(ParseCache.DEFAULT_MAX_SOURCE_SIZE_IN_BYTES))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(sourcePath)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public void generateToWriter() throws IOException {
+        generator.generate(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public String generateWithWarmParseCache() {
+        return warmGenerator.generate();
+    }
+
+    /**
+     * @param methods
+     * @return a service with a dependency and methods with three parameters, an if/else, a ternary and a switch
+     */
+    static String generatedServiceSource(int methods) {
+        var builder = new StringBuilder();
+        builder.append("package ch.bytecrowd.lazynerd;\n\n");
+        builder.append("import java.util.List;\n\n");
+        builder.append("public class GeneratedService {\n\n");
+        builder.append("    private final List<String> repository;\n\n");
+        builder.append("    public GeneratedService(List<String> repository) {\n");
+        builder.append("        this.repository = repository;\n");
+        builder.append("    }\n\n");
+        for (int i = 0; i < methods; i++) {
+            builder.append("    public String method").append(i).append("(int n, String name, List<String> values) {\n");
+            builder.append("        var prefix = n > 0 ? \"positive\" : \"negative\";\n");
+            builder.append("        switch (n) {\n");
+            builder.append("            case 1: return prefix + name;\n");
+            builder.append("            case 2: return prefix + values;\n");
+            builder.append("            default: break;\n");
+            builder.append("        }\n");
+            builder.append("        if (values.isEmpty()) {\n");
+            builder.append("            return repository.get(n);\n");
+            builder.append("        } else {\n");
+            builder.append("            return values.get(n);\n");
+            builder.append("        }\n");
+            builder.append("    }\n\n");
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
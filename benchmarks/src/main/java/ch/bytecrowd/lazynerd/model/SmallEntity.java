@@ -0,0 +1,21 @@
+package ch.bytecrowd.lazynerd.model;
+
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import java.util.List;
+import java.util.UUID;
+
+public class SmallEntity {
+
+    @Id
+    private UUID id;
+
+    private String title;
+
+    @OneToMany
+    private List<SmallEntity> children;
+
+    @ManyToOne
+    private SmallEntity parent;
+}
@@ -0,0 +1,335 @@
+package ch.bytecrowd.lazynerd.model;
+
+import javax.persistence.Id;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A legacy table with 320 columns
+ */
+public class WideEntity {
+
+    @Id
+    private Long id;
+
+    private Integer column001;
+    private Long column002;
+    private LocalDate column003;
+    private BigDecimal column004;
+    private Boolean column005;
+    private String column006;
+    private String column007;
+    private String column008;
+    private Integer column009;
+    private Long column010;
+    private LocalDate column011;
+    private BigDecimal column012;
+    private Boolean column013;
+    private String column014;
+    private String column015;
+    private String column016;
+    private Integer column017;
+    private Long column018;
+    private LocalDate column019;
+    private BigDecimal column020;
+    private Boolean column021;
+    private String column022;
+    private String column023;
+    private String column024;
+    private Integer column025;
+    private Long column026;
+    private LocalDate column027;
+    private BigDecimal column028;
+    private Boolean column029;
+    private String column030;
+    private String column031;
+    private String column032;
+    private Integer column033;
+    private Long column034;
+    private LocalDate column035;
+    private BigDecimal column036;
+    private Boolean column037;
+    private String column038;
+    private String column039;
+    private String column040;
+    private Integer column041;
+    private Long column042;
+    private LocalDate column043;
+    private BigDecimal column044;
+    private Boolean column045;
+    private String column046;
+    private String column047;
+    private String column048;
+    private Integer column049;
+    private Long column050;
+    private LocalDate column051;
+    private BigDecimal column052;
+    private Boolean column053;
+    private String column054;
+    private String column055;
+    private String column056;
+    private Integer column057;
+    private Long column058;
+    private LocalDate column059;
+    private BigDecimal column060;
+    private Boolean column061;
+    private String column062;
+    private String column063;
+    private String column064;
+    private Integer column065;
+    private Long column066;
+    private LocalDate column067;
+    private BigDecimal column068;
+    private Boolean column069;
+    private String column070;
+    private String column071;
+    private String column072;
+    private Integer column073;
+    private Long column074;
+    private LocalDate column075;
+    private BigDecimal column076;
+    private Boolean column077;
+    private String column078;
+    private String column079;
+    private String column080;
+    private Integer column081;
+    private Long column082;
+    private LocalDate column083;
+    private BigDecimal column084;
+    private Boolean column085;
+    private String column086;
+    private String column087;
+    private String column088;
+    private Integer column089;
+    private Long column090;
+    private LocalDate column091;
+    private BigDecimal column092;
+    private Boolean column093;
+    private String column094;
+    private String column095;
+    private String column096;
+    private Integer column097;
+    private Long column098;
+    private LocalDate column099;
+    private BigDecimal column100;
+    private Boolean column101;
+    private String column102;
+    private String column103;
+    private String column104;
+    private Integer column105;
+    private Long column106;
+    private LocalDate column107;
+    private BigDecimal column108;
+    private Boolean column109;
+    private String column110;
+    private String column111;
+    private String column112;
+    private Integer column113;
+    private Long column114;
+    private LocalDate column115;
+    private BigDecimal column116;
+    private Boolean column117;
+    private String column118;
+    private String column119;
+    private String column120;
+    private Integer column121;
+    private Long column122;
+    private LocalDate column123;
+    private BigDecimal column124;
+    private Boolean column125;
+    private String column126;
+    private String column127;
+    private String column128;
+    private Integer column129;
+    private Long column130;
+    private LocalDate column131;
+    private BigDecimal column132;
+    private Boolean column133;
+    private String column134;
+    private String column135;
+    private String column136;
+    private Integer column137;
+    private Long column138;
+    private LocalDate column139;
+    private BigDecimal column140;
+    private Boolean column141;
+    private String column142;
+    private String column143;
+    private String column144;
+    private Integer column145;
+    private Long column146;
+    private LocalDate column147;
+    private BigDecimal column148;
+    private Boolean column149;
+    private String column150;
+    private String column151;
+    private String column152;
+    private Integer column153;
+    private Long column154;
+    private LocalDate column155;
+    private BigDecimal column156;
+    private Boolean column157;
+    private String column158;
+    private String column159;
+    private String column160;
+    private Integer column161;
+    private Long column162;
+    private LocalDate column163;
+    private BigDecimal column164;
+    private Boolean column165;
+    private String column166;
+    private String column167;
+    private String column168;
+    private Integer column169;
+    private Long column170;
+    private LocalDate column171;
+    private BigDecimal column172;
+    private Boolean column173;
+    private String column174;
+    private String column175;
+    private String column176;
+    private Integer column177;
+    private Long column178;
+    private LocalDate column179;
+    private BigDecimal column180;
+    private Boolean column181;
+    private String column182;
+    private String column183;
+    private String column184;
+    private Integer column185;
+    private Long column186;
+    private LocalDate column187;
+    private BigDecimal column188;
+    private Boolean column189;
+    private String column190;
+    private String column191;
+    private String column192;
+    private Integer column193;
+    private Long column194;
+    private LocalDate column195;
+    private BigDecimal column196;
+    private Boolean column197;
+    private String column198;
+    private String column199;
+    private String column200;
+    private Integer column201;
+    private Long column202;
+    private LocalDate column203;
+    private BigDecimal column204;
+    private Boolean column205;
+    private String column206;
+    private String column207;
+    private String column208;
+    private Integer column209;
+    private Long column210;
+    private LocalDate column211;
+    private BigDecimal column212;
+    private Boolean column213;
+    private String column214;
+    private String column215;
+    private String column216;
+    private Integer column217;
+    private Long column218;
+    private LocalDate column219;
+    private BigDecimal column220;
+    private Boolean column221;
+    private String column222;
+    private String column223;
+    private String column224;
+    private Integer column225;
+    private Long column226;
+    private LocalDate column227;
+    private BigDecimal column228;
+    private Boolean column229;
+    private String column230;
+    private String column231;
+    private String column232;
+    private Integer column233;
+    private Long column234;
+    private LocalDate column235;
+    private BigDecimal column236;
+    private Boolean column237;
+    private String column238;
+    private String column239;
+    private String column240;
+    private Integer column241;
+    private Long column242;
+    private LocalDate column243;
+    private BigDecimal column244;
+    private Boolean column245;
+    private String column246;
+    private String column247;
+    private String column248;
+    private Integer column249;
+    private Long column250;
+    private LocalDate column251;
+    private BigDecimal column252;
+    private Boolean column253;
+    private String column254;
+    private String column255;
+    private String column256;
+    private Integer column257;
+    private Long column258;
+    private LocalDate column259;
+    private BigDecimal column260;
+    private Boolean column261;
+    private String column262;
+    private String column263;
+    private String column264;
+    private Integer column265;
+    private Long column266;
+    private LocalDate column267;
+    private BigDecimal column268;
+    private Boolean column269;
+    private String column270;
+    private String column271;
+    private String column272;
+    private Integer column273;
+    private Long column274;
+    private LocalDate column275;
+    private BigDecimal column276;
+    private Boolean column277;
+    private String column278;
+    private String column279;
+    private String column280;
+    private Integer column281;
+    private Long column282;
+    private LocalDate column283;
+    private BigDecimal column284;
+    private Boolean column285;
+    private String column286;
+    private String column287;
+    private String column288;
+    private Integer column289;
+    private Long column290;
+    private LocalDate column291;
+    private BigDecimal column292;
+    private Boolean column293;
+    private String column294;
+    private String column295;
+    private String column296;
+    private Integer column297;
+    private Long column298;
+    private LocalDate column299;
+    private BigDecimal column300;
+    private Boolean column301;
+    private String column302;
+    private String column303;
+    private String column304;
+    private Integer column305;
+    private Long column306;
+    private LocalDate column307;
+    private BigDecimal column308;
+    private Boolean column309;
+    private String column310;
+    private String column311;
+    private String column312;
+    private Integer column313;
+    private Long column314;
+    private LocalDate column315;
+    private BigDecimal column316;
+    private Boolean column317;
+    private String column318;
+    private String column319;
+    private String column320;
+}
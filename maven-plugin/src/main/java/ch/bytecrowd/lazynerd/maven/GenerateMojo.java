@@ -0,0 +1,134 @@
+package ch.bytecrowd.lazynerd.maven;
+
+import ch.bytecrowd.lazynerd.IncrementalGeneration;
+import ch.bytecrowd.lazynerd.Templates;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates the templates for the entities of the project from their sources.
+ * <p>
+ * Only the entity/template pairs whose entity source, template, looked up sources of the source tree or lazy-nerd
+ * version changed since the last build are generated again, the state is kept in {@link #stateFile}. The stale pairs
+ * are generated by as many threads as the '-T' option allows.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /**
+     * the directory of the entity sources
+     */
+    @Parameter(defaultValue = "${project.build.sourceDirectory}", required = true)
+    private File sourceDirectory;
+
+    /**
+     * the canonical names of the entities, e.g. 'ch.bytecrowd.lazynerd.model.Book'
+     */
+    @Parameter(required = true)
+    private List<String> entities;
+
+    /**
+     * the names of constants in {@link Templates}, e.g. 'QUARKUS_REPOSITORY', or paths of template files
+     */
+    @Parameter(required = true)
+    private List<String> templates;
+
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/lazy-nerd", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project.build.directory}/lazy-nerd/generation-state", required = true)
+    private File stateFile;
+
+    @Parameter(property = "lazy-nerd.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the generation");
+            return;
+        }
+        project.addCompileSourceRoot(outputDirectory.getPath());
+
+        var generation = new IncrementalGeneration(stateFile.toPath(), outputDirectory.toPath());
+        var threads = Math.max(1, session.getRequest().getDegreeOfConcurrency());
+        var pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        IncrementalGeneration.Result result;
+        try {
+            result = generation.run(entitySources(), templatesByName(), pool == null ? Runnable::run : (Executor) pool);
+        } catch (IOException e) {
+            throw new MojoExecutionException("could not generate the sources", e);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        getLog().info("Generated " + result.writtenFiles().size() + " file(s), "
+                + result.upToDateFiles().size() + " up to date, "
+                + result.deletedFiles().size() + " deleted");
+        if (!result.isSuccessful()) {
+            result.failures().forEach(failure -> getLog().error(
+                    failure.entitySource() + " / " + failure.templateName() + ": " + failure.cause().getMessage(),
+                    failure.cause()
+            ));
+            throw new MojoFailureException(result.failures().size() + " entity/template pair(s) could not be generated");
+        }
+    }
+
+    private List<Path> entitySources() throws MojoExecutionException {
+        var sources = new ArrayList<Path>();
+        for (var entity : entities) {
+            var source = sourceDirectory.toPath().resolve(entity.replace('.', '/') + ".java");
+            if (!Files.isRegularFile(source)) {
+                throw new MojoExecutionException("the source of the entity " + entity + " does not exist: " + source);
+            }
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    private Map<String, String> templatesByName() throws MojoExecutionException {
+        var templatesByName = new LinkedHashMap<String, String>();
+        for (var template : templates) {
+            templatesByName.put(template, template(template));
+        }
+        return templatesByName;
+    }
+
+    private String template(String name) throws MojoExecutionException {
+        var predefined = Templates.named(name);
+        if (predefined.isPresent()) {
+            return predefined.get();
+        }
+        var file = project.getBasedir().toPath().resolve(name);
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("the template " + name + " is neither a constant of Templates nor a readable file: " + file, e);
+        }
+    }
+}
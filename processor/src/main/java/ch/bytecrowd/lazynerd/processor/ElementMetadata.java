@@ -0,0 +1,93 @@
+package ch.bytecrowd.lazynerd.processor;
+
+import ch.bytecrowd.lazynerd.ParamProvider;
+import ch.bytecrowd.lazynerd.ParamProvider.EntityTypeField;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import java.util.Map;
+
+/**
+ * Builds the params of {@link ParamProvider#paramsFromEntity(Class)} from the element of an entity which is being compiled.
+ */
+final class ElementMetadata {
+
+    private static final String ID = "javax.persistence.Id";
+
+    private ElementMetadata() {
+
+    }
+
+    /**
+     * @param entity
+     * @param elements
+     * @return the same params as for the loaded class of the entity
+     */
+    static Map<String, Object> params(TypeElement entity, Elements elements) {
+        var entityTypeSimpleName = entity.getSimpleName().toString();
+        var fields = ElementFilter.fieldsIn(entity.getEnclosedElements());
+        var entityTypeFields = fields.stream()
+                .map(field -> EntityTypeField.of(
+                        entityTypeSimpleName,
+                        field.getSimpleName().toString(),
+                        simpleName(field.asType()),
+                        genericTypeName(field.asType())
+                ))
+                .toList();
+        var idType = fields.stream()
+                .filter(ElementMetadata::isAnnotatedWithId)
+                .map(VariableElement::asType)
+                .findFirst();
+        return ParamProvider.paramsFromEntity(
+                entityTypeSimpleName,
+                elements.getBinaryName(entity).toString(),
+                idType.map(ElementMetadata::simpleName).orElse(null),
+                idType.map(type -> canonicalName(type, elements)).orElse(null),
+                entityTypeFields
+        );
+    }
+
+    private static boolean isAnnotatedWithId(VariableElement field) {
+        return field.getAnnotationMirrors().stream()
+                .map(annotation -> (TypeElement) annotation.getAnnotationType().asElement())
+                .anyMatch(annotation -> annotation.getQualifiedName().contentEquals(ID));
+    }
+
+    /**
+     * @return the name like {@link Class#getSimpleName()} of the erased type
+     */
+    private static String simpleName(TypeMirror type) {
+        if (type instanceof ArrayType arrayType) {
+            return simpleName(arrayType.getComponentType()) + "[]";
+        }
+        if (type instanceof DeclaredType declaredType) {
+            return declaredType.asElement().getSimpleName().toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * @return the name like {@link Class#getName()} of the erased type
+     */
+    private static String canonicalName(TypeMirror type, Elements elements) {
+        if (type instanceof DeclaredType declaredType) {
+            return elements.getBinaryName((TypeElement) declaredType.asElement()).toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * @return the name like {@link java.lang.reflect.Type#getTypeName()} of the first type argument, or an empty string
+     */
+    private static String genericTypeName(TypeMirror type) {
+        if (type instanceof DeclaredType declaredType && !declaredType.getTypeArguments().isEmpty()) {
+            return declaredType.getTypeArguments().get(0).toString();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,22 @@
+package ch.bytecrowd.lazynerd.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity class for which the {@link LazyNerdProcessor} generates sources during the compilation.
+ * <p>
+ * Every template has to render a compilation unit, e.g. {@code @LazyNerd(templates = {Templates.QUARKUS_REPOSITORY, Templates.QUARKUS_SERVICE})},
+ * the generated source is named after its package and its first top-level type.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface LazyNerd {
+
+    /**
+     * @return the templates to fill up with the params of the entity, see {@link ch.bytecrowd.lazynerd.Templates}
+     */
+    String[] templates();
+}
@@ -0,0 +1,83 @@
+package ch.bytecrowd.lazynerd.processor;
+
+import ch.bytecrowd.lazynerd.CompiledTemplate;
+import ch.bytecrowd.lazynerd.TemplateFiller;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fills up the templates of every class annotated with {@link LazyNerd} during the compilation.
+ * <p>
+ * The params are read from the {@link javax.lang.model} elements, nothing is loaded by reflection.
+ * Every generated source is created through the {@link javax.annotation.processing.Filer} with the entity
+ * as its originating element, so an incremental compilation only regenerates the sources of changed entities.
+ */
+@SupportedAnnotationTypes("ch.bytecrowd.lazynerd.processor.LazyNerd")
+public class LazyNerdProcessor extends AbstractProcessor {
+
+    private final TemplateFiller templateFiller = new TemplateFiller();
+    private final Map<String, CompiledTemplate> compiledTemplates = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var element : roundEnv.getElementsAnnotatedWith(LazyNerd.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error("@LazyNerd is only supported on classes", element);
+                continue;
+            }
+            var entity = (TypeElement) element;
+            var params = ElementMetadata.params(entity, processingEnv.getElementUtils());
+            for (var template : entity.getAnnotation(LazyNerd.class).templates()) {
+                var source = compiledTemplates.computeIfAbsent(template, templateFiller::compile).render(() -> params);
+                generate(entity, source);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement entity, String source) {
+        var qualifiedName = qualifiedNameOf(source);
+        if (qualifiedName.isEmpty()) {
+            error("a template of @LazyNerd does not declare a type:\n" + source, entity);
+            return;
+        }
+        try (var writer = processingEnv.getFiler().createSourceFile(qualifiedName.get(), entity).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            error("could not write " + qualifiedName.get() + ": " + e.getMessage(), entity);
+        }
+    }
+
+    /**
+     * @return the name of the first top-level type of the source, empty if it does not declare a type or can not be parsed
+     */
+    private static Optional<String> qualifiedNameOf(String source) {
+        return new JavaParser().parse(source).getResult()
+                .flatMap(compilationUnit -> compilationUnit.getTypes().stream()
+                        .findFirst()
+                        .flatMap(TypeDeclaration::getFullyQualifiedName));
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,130 @@
+package ch.bytecrowd.lazynerd.processor;
+
+import ch.bytecrowd.lazynerd.ParamProvider;
+import ch.bytecrowd.lazynerd.TemplateFiller;
+import ch.bytecrowd.lazynerd.Templates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyNerdProcessorTest {
+
+    @Test
+    void testSourcesAreGeneratedDuringTheCompilation(@TempDir Path directory) throws Exception {
+        var entity = write(directory.resolve("src/com/example/shop/model/Invoice.java"), """
+                package com.example.shop.model;
+
+                import ch.bytecrowd.lazynerd.processor.LazyNerd;
+                import javax.persistence.Id;
+                import javax.persistence.OneToMany;
+                import java.util.List;
+                import java.util.UUID;
+
+                @LazyNerd(templates = Invoice.DTO)
+                public class Invoice {
+
+                    public static final String DTO = \"""
+                            package ${basePackage}.dto;
+
+                            import ${entityTypeCanonicalName};
+                            import ${idTypeCanonicalName};
+                            import java.util.List;
+
+                            /**
+                             * ${entityRestResourceName}
+                             */
+                            public record ${entityTypeSimpleName}Dto(
+                            #forEach(entityTypeFields)
+                                    ${fieldType} ${fieldName},
+                            #end
+                                    boolean deleted
+                            ) {
+                            }
+                            \""";
+
+                    @Id
+                    private UUID id;
+
+                    private String customer;
+
+                    @OneToMany
+                    private List<Invoice> related;
+                }
+                """);
+
+        var diagnostics = compile(directory, entity);
+
+        assertThat(diagnostics.getDiagnostics()).noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR);
+        assertThat(directory.resolve("classes/com/example/shop/dto/InvoiceDto.class")).exists();
+        try (var classLoader = new URLClassLoader(new URL[]{directory.resolve("classes").toUri().toURL()})) {
+            var invoice = classLoader.loadClass("com.example.shop.model.Invoice");
+            var template = (String) invoice.getDeclaredField("DTO").get(null);
+            assertThat(directory.resolve("generated/com/example/shop/dto/InvoiceDto.java"))
+                    .hasContent(new TemplateFiller().fillUpTemplate(template, () -> ParamProvider.paramsFromEntity(invoice)));
+        }
+    }
+
+    @Test
+    void testTemplatesWithoutTypeAreReported(@TempDir Path directory) throws Exception {
+        var entity = write(directory.resolve("src/com/example/Note.java"), """
+                package com.example;
+
+                import ch.bytecrowd.lazynerd.Templates;
+                import ch.bytecrowd.lazynerd.processor.LazyNerd;
+
+                @LazyNerd(templates = Templates.GETTER_SETTER_EQUALS_AND_HASH_CODE)
+                public class Note {
+
+                    private String text;
+                }
+                """);
+
+        var diagnostics = compile(directory, entity);
+
+        assertThat(diagnostics.getDiagnostics())
+                .filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .singleElement()
+                .satisfies(diagnostic -> assertThat(diagnostic.getMessage(null)).startsWith("a template of @LazyNerd does not declare a type"));
+    }
+
+    private static Path write(Path path, String source) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, source);
+    }
+
+    private static DiagnosticCollector<JavaFileObject> compile(Path directory, Path source) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        Files.createDirectories(directory.resolve("classes"));
+        Files.createDirectories(directory.resolve("generated"));
+        try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            var task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    List.of(
+                            "-classpath", System.getProperty("java.class.path"),
+                            "-d", directory.resolve("classes").toString(),
+                            "-s", directory.resolve("generated").toString()
+                    ),
+                    null,
+                    fileManager.getJavaFileObjects(source)
+            );
+            task.setProcessors(List.of(new LazyNerdProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+}
@@ -0,0 +1,133 @@
+package ch.bytecrowd.lazynerd;
+
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.PrimitiveType;
+import com.github.javaparser.ast.type.ReferenceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.VoidType;
+import com.github.javaparser.ast.type.WildcardType;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The constructor and method signatures of a loaded class as a declaration without bodies, so the tests
+ * of {@link UnitTestGenerator} can be generated without the source of the class.
+ * <p>
+ * The declarations are built once per {@link Class} and must not be modified. The parameter names are only
+ * known if the class was compiled with '-parameters', otherwise they are 'arg0', 'arg1' and so on.
+ */
+final class ClassSignatures {
+
+    private static final ClassValue<ClassOrInterfaceDeclaration> DECLARATIONS = new ClassValue<>() {
+        @Override
+        protected ClassOrInterfaceDeclaration computeValue(Class<?> type) {
+            return declare(type);
+        }
+    };
+
+    private ClassSignatures() {
+    }
+
+    static ClassOrInterfaceDeclaration of(Class<?> clazz) {
+        return DECLARATIONS.get(clazz);
+    }
+
+    private static ClassOrInterfaceDeclaration declare(Class<?> clazz) {
+        var declaration = new ClassOrInterfaceDeclaration(new NodeList<>(modifiers(clazz.getModifiers())), false, clazz.getSimpleName());
+        Arrays.stream(clazz.getDeclaredConstructors())
+                .filter(constructor -> !constructor.isSynthetic())
+                .sorted(Comparator.comparingInt(Executable::getParameterCount))
+                .forEach(constructor -> declaration.addConstructor()
+                        .setModifiers(modifiers(constructor.getModifiers()))
+                        .setParameters(parameters(constructor)));
+        Arrays.stream(clazz.getDeclaredMethods())
+                .filter(method -> !method.isSynthetic() && !method.isBridge())
+                .sorted(Comparator.comparing(Method::getName).thenComparing(method -> Arrays.toString(method.getParameterTypes())))
+                .forEach(method -> declaration.addMember(new MethodDeclaration(
+                        modifiers(method.getModifiers()),
+                        method.getName(),
+                        type(method.getGenericReturnType()),
+                        parameters(method)
+                ).removeBody()));
+        return declaration;
+    }
+
+    private static NodeList<Modifier> modifiers(int modifiers) {
+        var nodes = new NodeList<Modifier>();
+        if (java.lang.reflect.Modifier.isPublic(modifiers)) {
+            nodes.add(Modifier.publicModifier());
+        } else if (java.lang.reflect.Modifier.isProtected(modifiers)) {
+            nodes.add(Modifier.protectedModifier());
+        } else if (java.lang.reflect.Modifier.isPrivate(modifiers)) {
+            nodes.add(Modifier.privateModifier());
+        }
+        if (java.lang.reflect.Modifier.isStatic(modifiers)) {
+            nodes.add(Modifier.staticModifier());
+        }
+        return nodes;
+    }
+
+    private static NodeList<Parameter> parameters(Executable executable) {
+        var parameters = executable.getParameters();
+        var genericTypes = executable.getGenericParameterTypes();
+        var nodes = new NodeList<Parameter>();
+        for (int i = 0; i < parameters.length; i++) {
+            // the generic types lack synthetic parameters, e.g. of enum constructors
+            var genericType = genericTypes.length == parameters.length ? genericTypes[i] : parameters[i].getType();
+            var type = type(genericType);
+            var parameter = new Parameter(type, parameters[i].getName());
+            if (parameters[i].isVarArgs() && type instanceof ArrayType arrayType) {
+                parameter.setType(arrayType.getComponentType()).setVarArgs(true);
+            }
+            nodes.add(parameter);
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the type as it would be written in a source, with simple names
+     */
+    private static Type type(java.lang.reflect.Type type) {
+        if (type instanceof Class<?> clazz) {
+            if (clazz.isArray()) {
+                return new ArrayType(type(clazz.getComponentType()));
+            }
+            if (clazz.isPrimitive()) {
+                return clazz == void.class
+                        ? new VoidType()
+                        : new PrimitiveType(PrimitiveType.Primitive.valueOf(clazz.getName().toUpperCase()));
+            }
+            return new ClassOrInterfaceType(null, clazz.getSimpleName());
+        } else if (type instanceof ParameterizedType parameterizedType) {
+            var typeArguments = new NodeList<Type>();
+            Arrays.stream(parameterizedType.getActualTypeArguments()).map(ClassSignatures::type).forEach(typeArguments::add);
+            return new ClassOrInterfaceType(null, ((Class<?>) parameterizedType.getRawType()).getSimpleName())
+                    .setTypeArguments(typeArguments);
+        } else if (type instanceof GenericArrayType arrayType) {
+            return new ArrayType(type(arrayType.getGenericComponentType()));
+        } else if (type instanceof TypeVariable<?> typeVariable) {
+            return new ClassOrInterfaceType(null, typeVariable.getName());
+        } else if (type instanceof java.lang.reflect.WildcardType wildcardType) {
+            var wildcard = new WildcardType();
+            if (wildcardType.getLowerBounds().length > 0) {
+                wildcard.setSuperType((ReferenceType) type(wildcardType.getLowerBounds()[0]));
+            } else if (wildcardType.getUpperBounds().length > 0 && wildcardType.getUpperBounds()[0] != Object.class) {
+                wildcard.setExtendedType((ReferenceType) type(wildcardType.getUpperBounds()[0]));
+            }
+            return wildcard;
+        }
+        return new ClassOrInterfaceType(null, type.getTypeName());
+    }
+}
@@ -0,0 +1,362 @@
+package ch.bytecrowd.lazynerd;
+
+import org.apache.commons.text.StringSubstitutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template which has been tokenized once into literal segments, placeholders and loop nodes.
+ * <p>
+ * Loops can be nested, the collection of an inner loop and its placeholders are resolved against
+ * the current item first, then against the outer items and finally against the params.
+ * The getters of the names used in a loop body are bound once per item class, rendering an item
+ * does not do any reflective lookup.
+ * <p>
+ * Instances are immutable and can be rendered concurrently against any {@link ParamProvider},
+ * rendering does not use any regular expression and does not rescan the template text.
+ * The output is the same as the one of {@link TemplateFiller#fillUpTemplate(String, ParamProvider)}:
+ * values containing placeholders are substituted recursively by the params, and templates using the
+ * other syntax of the {@link StringSubstitutor} (escaped {@code $${name}}, {@code ${name:-default}}
+ * or nested placeholders) are rendered by it after the loops have been expanded.
+ */
+public final class CompiledTemplate {
+
+    private static final String LOOP_START = "#forEach(";
+    private static final String LOOP_END = "#end";
+    private static final String PLACEHOLDER_START = "${";
+
+    private static final String ESCAPED_PLACEHOLDER_START = "$${";
+    private static final String DEFAULT_VALUE_DELIMITER = ":-";
+
+    private final String template;
+    private final List<Node> nodes;
+    /**
+     * true if the template uses syntax of the {@link StringSubstitutor} which is not compiled into nodes
+     */
+    private final boolean substitutorSyntax;
+
+    private CompiledTemplate(String template, List<Node> nodes, boolean substitutorSyntax) {
+        this.template = template;
+        this.nodes = nodes;
+        this.substitutorSyntax = substitutorSyntax;
+    }
+
+    static CompiledTemplate compile(String template) {
+        var parser = new Parser(template);
+        var nodes = parser.parseTemplate();
+        return new CompiledTemplate(template, nodes, parser.substitutorSyntax);
+    }
+
+    /**
+     * @param paramProvider
+     * @return the rendered template
+     */
+    public String render(ParamProvider paramProvider) {
+        return render(RenderContext.of(paramProvider));
+    }
+
+    /**
+     * Streams the rendered template into the given {@link Appendable}, e.g. a {@link java.io.Writer},
+     * without materializing the output. The {@link Appendable} is neither flushed nor closed.
+     *
+     * @param paramProvider
+     * @param out
+     * @throws IOException
+     */
+    public void render(ParamProvider paramProvider, Appendable out) throws IOException {
+        render(RenderContext.of(paramProvider), out);
+    }
+
+    String render(RenderContext context) {
+        if (substitutorSyntax) {
+            return new StringSubstitutor(context.params())
+                    .setDisableSubstitutionInValues(context.verbatim())
+                    .replace(renderLoops(context));
+        }
+        var builder = new StringBuilder(template.length());
+        renderToBuilder(Scope.root(context, true), builder);
+        return builder.toString();
+    }
+
+    void render(RenderContext context, Appendable out) throws IOException {
+        if (substitutorSyntax) {
+            out.append(render(context));
+            return;
+        }
+        renderNodes(nodes, Scope.root(context, true), out);
+    }
+
+    /**
+     * Expands the loops only, placeholders which are not resolved by a loop item are kept as they are
+     *
+     * @param context
+     * @return the template with expanded loops
+     */
+    String renderLoops(RenderContext context) {
+        var builder = new StringBuilder(template.length());
+        renderToBuilder(Scope.root(context, false), builder);
+        return builder.toString();
+    }
+
+    private void renderToBuilder(Scope scope, StringBuilder builder) {
+        try {
+            renderNodes(nodes, scope, builder);
+        } catch (IOException e) {
+            // a StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    private static void renderNodes(List<Node> nodes, Scope scope, Appendable out) throws IOException {
+        for (var node : nodes) {
+            if (node instanceof Literal literal) {
+                out.append(literal.text());
+            } else if (node instanceof Placeholder placeholder) {
+                var value = scope.lookupPlaceholder(placeholder.name(), placeholder.slot());
+                out.append(value == null ? placeholder.source() : scope.substitute(value.toString()));
+            } else if (node instanceof Loop loop) {
+                renderLoop(loop, scope, out);
+            }
+        }
+    }
+
+    private static void renderLoop(Loop loop, Scope scope, Appendable out) throws IOException {
+        var value = scope.lookupCollection(loop.key(), loop.keySlot());
+        if (value instanceof Collection<?> collection) {
+            if (collection.isEmpty()) {
+                out.append(loop.trailer());
+                return;
+            }
+            var itemScope = scope.itemScope();
+            for (var item : collection) {
+                if (item == null) {
+                    throw new IllegalArgumentException("#forEach(" + loop.key() + ") contains null:\n" + loop.source());
+                }
+                itemScope.bind(item, loop.getters().get(item.getClass()));
+                renderNodes(loop.body(), itemScope, out);
+            }
+        } else {
+            if (value == null) {
+                throw new IllegalArgumentException("#forEach(" + loop.key() + ") is null:\n" + loop.source());
+            }
+            throw new IllegalArgumentException("#forEach(" + loop.key() + ") has to be an instance of collection:\n" + loop.source());
+        }
+    }
+
+    private sealed interface Node permits Literal, Placeholder, Loop {
+    }
+
+    private record Literal(String text) implements Node {
+    }
+
+    /**
+     * @param name   the name between the braces
+     * @param source the placeholder as written in the template, rendered when the name can not be resolved
+     * @param slot   the index of the name in the getters of the enclosing loop, -1 outside of a loop
+     */
+    private record Placeholder(String name, String source, int slot) implements Node {
+    }
+
+    /**
+     * @param key     the name of the collection to iterate
+     * @param keySlot the index of the key in the getters of the enclosing loop, -1 outside of a loop
+     * @param body    the nodes rendered for every item
+     * @param trailer the spaces and line break following {@code #end}, only rendered for an empty collection
+     * @param source  the loop as written in the template, used for error messages
+     * @param getters the getters of the names used in the body, bound once per item class
+     */
+    private record Loop(
+            String key,
+            int keySlot,
+            List<Node> body,
+            String trailer,
+            String source,
+            ClassValue<MethodHandle[]> getters
+    ) implements Node {
+
+        static Loop of(String key, int keySlot, List<Node> body, String trailer, String source, List<String> names) {
+            return new Loop(key, keySlot, body, trailer, source, new ClassValue<>() {
+                @Override
+                protected MethodHandle[] computeValue(Class<?> type) {
+                    return PropertyAccessors.of(type).bind(names);
+                }
+            });
+        }
+    }
+
+    private static final class Scope {
+        private final Scope parent;
+        private final Map<String, Object> params;
+        private final boolean substituteParams;
+        private final boolean verbatim;
+        private Object item;
+        private MethodHandle[] getters;
+
+        private Scope(Scope parent, Map<String, Object> params, boolean substituteParams, boolean verbatim) {
+            this.parent = parent;
+            this.params = params;
+            this.substituteParams = substituteParams;
+            this.verbatim = verbatim;
+        }
+
+        /**
+         * @param context
+         * @param substituteParams false if placeholders resolved by the params have to be kept for a later substitution
+         */
+        static Scope root(RenderContext context, boolean substituteParams) {
+            return new Scope(null, context.params(), substituteParams, context.verbatim());
+        }
+
+        /**
+         * @return a scope which is rebound to every item of a loop
+         */
+        Scope itemScope() {
+            return new Scope(this, null, false, verbatim);
+        }
+
+        void bind(Object item, MethodHandle[] getters) {
+            this.item = item;
+            this.getters = getters;
+        }
+
+        /**
+         * Resolves the collection of a {@code #forEach}, the innermost item wins over outer items and the params
+         */
+        Object lookupCollection(String name, int slot) {
+            return lookup(name, slot, true);
+        }
+
+        Object lookupPlaceholder(String name, int slot) {
+            return lookup(name, slot, false);
+        }
+
+        /**
+         * @return the value with its placeholders substituted recursively by the params, as the {@link StringSubstitutor}
+         * does, or as it is if the params are substituted later or the values are rendered verbatim
+         */
+        String substitute(String value) {
+            var root = this;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            return root.substituteParams && !root.verbatim && value.contains(PLACEHOLDER_START)
+                    ? StringSubstitutor.replace(value, root.params)
+                    : value;
+        }
+
+        private Object lookup(String name, int slot, boolean collection) {
+            if (parent == null) {
+                return collection || substituteParams ? params.get(name) : null;
+            }
+            var value = slot < 0
+                    ? PropertyAccessors.of(item.getClass()).get(item, name)
+                    : PropertyAccessors.invoke(getters[slot], item);
+            return value == null ? parent.lookup(name, -1, collection) : value;
+        }
+    }
+
+    private static final class Parser {
+        private final String template;
+        private int position;
+        private boolean substitutorSyntax;
+
+        Parser(String template) {
+            this.template = template;
+        }
+
+        List<Node> parseTemplate() {
+            return parseNodes(null);
+        }
+
+        /**
+         * @param names the names used in the body of the enclosing loop, {@code null} outside of a loop
+         */
+        private List<Node> parseNodes(Map<String, Integer> names) {
+            var nodes = new ArrayList<Node>();
+            var literalStart = position;
+            while (position < template.length()) {
+                var c = template.charAt(position);
+                if (c == '$' && template.startsWith(ESCAPED_PLACEHOLDER_START, position)) {
+                    substitutorSyntax = true;
+                    position += ESCAPED_PLACEHOLDER_START.length();
+                } else if (c == '$' && template.startsWith(PLACEHOLDER_START, position)) {
+                    var end = template.indexOf('}', position + PLACEHOLDER_START.length());
+                    if (end < 0) {
+                        position++;
+                        continue;
+                    }
+                    addLiteral(nodes, literalStart, position);
+                    var name = template.substring(position + PLACEHOLDER_START.length(), end);
+                    if (name.contains(PLACEHOLDER_START) || name.contains(DEFAULT_VALUE_DELIMITER)) {
+                        substitutorSyntax = true;
+                    }
+                    nodes.add(new Placeholder(name, template.substring(position, end + 1), slot(names, name)));
+                    position = end + 1;
+                    literalStart = position;
+                } else if (c == '#' && names != null && template.startsWith(LOOP_END, position)) {
+                    break;
+                } else if (c == '#' && template.startsWith(LOOP_START, position)) {
+                    addLiteral(nodes, literalStart, position);
+                    nodes.add(parseLoop(names));
+                    literalStart = position;
+                } else {
+                    position++;
+                }
+            }
+            addLiteral(nodes, literalStart, position);
+            return List.copyOf(nodes);
+        }
+
+        private Loop parseLoop(Map<String, Integer> enclosingNames) {
+            var start = position;
+            var keyStart = position + LOOP_START.length();
+            var keyEnd = template.indexOf(')', keyStart);
+            if (keyEnd < 0) {
+                throw new IllegalArgumentException("#forEach is missing its closing parenthesis:\n" + template.substring(start));
+            }
+            var key = template.substring(keyStart, keyEnd);
+            var keySlot = slot(enclosingNames, key);
+            position = skipLineEnd(keyEnd + 1);
+
+            var names = new LinkedHashMap<String, Integer>();
+            var body = parseNodes(names);
+            if (position >= template.length()) {
+                throw new IllegalArgumentException("#forEach(" + key + ") is not closed by #end:\n" + template.substring(start));
+            }
+            var end = position + LOOP_END.length();
+            position = skipLineEnd(end);
+            return Loop.of(key, keySlot, body, template.substring(end, position), template.substring(start, end), List.copyOf(names.keySet()));
+        }
+
+        private static int slot(Map<String, Integer> names, String name) {
+            return names == null ? -1 : names.computeIfAbsent(name, n -> names.size());
+        }
+
+        private int skipLineEnd(int index) {
+            while (index < template.length() && template.charAt(index) == ' ') {
+                index++;
+            }
+            if (index < template.length() && template.charAt(index) == '\n') {
+                index++;
+            }
+            return index;
+        }
+
+        private void addLiteral(List<Node> nodes, int start, int end) {
+            if (end > start) {
+                nodes.add(new Literal(template.substring(start, end)));
+            }
+        }
+    }
+}
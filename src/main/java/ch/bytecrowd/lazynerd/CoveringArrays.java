@@ -0,0 +1,315 @@
+package ch.bytecrowd.lazynerd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Binary covering arrays backing the {@link PermutationStrategy}s
+ */
+final class CoveringArrays {
+
+    static final int MAX_STRENGTH = 6;
+    private static final int MAX_PARAMETERS = Long.SIZE;
+    private static final int N_WISE_CANDIDATES = 10;
+    /**
+     * the most column subsets an n-wise permutation tracks, e.g. 4-wise of 40 or 3-wise of 64 parameters
+     */
+    static final long MAX_INTERACTIONS = 100_000;
+
+    private CoveringArrays() {
+    }
+
+    /**
+     * A {@link PermutationStrategy} whose {@link #toString()} is its name
+     */
+    record Strategy(String name, IntFunction<Stream<boolean[]>> generator) implements PermutationStrategy {
+
+        @Override
+        public Stream<boolean[]> combinations(int parameterCount) {
+            return generator.apply(parameterCount);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static Stream<boolean[]> exhaustive(int parameterCount) {
+        if (parameterCount >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("too many parameters for an exhaustive permutation: " + parameterCount);
+        }
+        return LongStream.range(0, 1L << parameterCount)
+                .mapToObj(bits -> {
+                    var combination = new boolean[parameterCount];
+                    for (int j = 0; j < parameterCount; j++) {
+                        combination[j] = ((bits >> j) & 1) == 1;
+                    }
+                    return combination;
+                });
+    }
+
+    /**
+     * The first row is all false, every column is a distinct subset of ceil(N/2) of the remaining N-1 rows.
+     * Two such subsets neither contain each other nor are disjoint, so every pair of columns covers all four combinations.
+     * N is the smallest number of rows with enough subsets for all columns.
+     */
+    static Stream<boolean[]> pairwise(int parameterCount) {
+        if (parameterCount <= 2) {
+            return exhaustive(parameterCount);
+        }
+        int rows = 2;
+        while (binomial(rows - 1, (rows + 1) / 2) < parameterCount) {
+            rows++;
+        }
+        var columns = new ArrayList<int[]>(parameterCount);
+        var subset = new int[(rows + 1) / 2];
+        for (int i = 0; i < subset.length; i++) {
+            subset[i] = i + 1;
+        }
+        while (columns.size() < parameterCount) {
+            columns.add(subset.clone());
+            nextSubset(subset, rows - 1);
+        }
+        int rowCount = rows;
+        return Stream.iterate(0, row -> row < rowCount, row -> row + 1)
+                .map(row -> {
+                    var combination = new boolean[parameterCount];
+                    for (int j = 0; j < parameterCount; j++) {
+                        combination[j] = Arrays.binarySearch(columns.get(j), row) >= 0;
+                    }
+                    return combination;
+                });
+    }
+
+    /**
+     * Greedy construction in the style of AETG. Every row starts with the first uncovered combination and completes
+     * the remaining parameters, in a shuffled order, with the value covering the most uncovered combinations
+     * of the parameters chosen so far. The best of several such candidates is taken, the shuffling is seeded
+     * so the rows are the same for every run.
+     *
+     * @throws IllegalArgumentException if there are more than {@link #MAX_INTERACTIONS} subsets of {@code strength} columns
+     */
+    static Stream<boolean[]> nWise(int parameterCount, int strength) {
+        if (parameterCount <= strength) {
+            return exhaustive(parameterCount);
+        }
+        if (parameterCount > MAX_PARAMETERS) {
+            throw new IllegalArgumentException("too many parameters for an n-wise permutation: " + parameterCount);
+        }
+        var interactions = binomial(parameterCount, strength);
+        if (interactions > MAX_INTERACTIONS) {
+            throw new IllegalArgumentException("too many parameters for a " + strength + "-wise permutation: " + parameterCount
+                    + " parameters have " + interactions + " combinations of " + strength + ", at most " + MAX_INTERACTIONS + " are supported");
+        }
+        // the columns of every interaction as bit mask to the bit mask of its value combinations not covered yet
+        var uncovered = new LinkedHashMap<Long, Long>();
+        long allValues = strength == MAX_STRENGTH ? -1L : (1L << (1 << strength)) - 1;
+        forEachSubset(parameterCount, strength, columns -> uncovered.put(columns, allValues));
+
+        var random = new SplittableRandom(parameterCount * 31L + strength);
+        var rows = new ArrayList<boolean[]>();
+        while (!uncovered.isEmpty()) {
+            int[] best = null;
+            int bestCovered = -1;
+            for (int candidate = 0; candidate < N_WISE_CANDIDATES; candidate++) {
+                var row = candidateRow(parameterCount, strength, uncovered, random);
+                var covered = countCovered(row, strength, uncovered);
+                if (covered > bestCovered) {
+                    best = row;
+                    bestCovered = covered;
+                }
+            }
+            var row = best;
+            forEachSubset(parameterCount, strength, columns -> uncovered.computeIfPresent(columns, (key, values) -> {
+                var remaining = values & ~(1L << valueOf(row, columns));
+                return remaining == 0 ? null : remaining;
+            }));
+            var combination = new boolean[parameterCount];
+            for (int j = 0; j < parameterCount; j++) {
+                combination[j] = row[j] == 1;
+            }
+            rows.add(combination);
+        }
+        return rows.stream();
+    }
+
+    private static int[] candidateRow(int parameterCount, int strength, Map<Long, Long> uncovered, SplittableRandom random) {
+        var first = uncovered.entrySet().iterator().next();
+        var row = new int[parameterCount];
+        Arrays.fill(row, -1);
+        int value = Long.numberOfTrailingZeros(first.getValue());
+        int index = 0;
+        for (long columns = first.getKey(); columns != 0; columns &= columns - 1) {
+            row[Long.numberOfTrailingZeros(columns)] = (value >> index++) & 1;
+        }
+        var order = new int[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        for (int column : order) {
+            if (row[column] < 0) {
+                row[column] = 0;
+                var coveredByFalse = countCoveredWith(row, column, strength, uncovered);
+                row[column] = 1;
+                if (coveredByFalse > countCoveredWith(row, column, strength, uncovered)) {
+                    row[column] = 0;
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return the number of uncovered combinations covered by the complete row
+     */
+    private static int countCovered(int[] row, int strength, Map<Long, Long> uncovered) {
+        var count = new int[1];
+        forEachSubset(row.length, strength, columns -> {
+            var values = uncovered.get(columns);
+            if (values != null && (values & (1L << valueOf(row, columns))) != 0) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    static Stream<boolean[]> capped(int parameterCount, int maxCombinations) {
+        if (parameterCount < Long.SIZE - 1 && (1L << parameterCount) <= maxCombinations) {
+            return exhaustive(parameterCount);
+        }
+        var random = new SplittableRandom(parameterCount);
+        var seen = new HashSet<BitSet>();
+        return Stream.iterate(0, i -> i + 1)
+                .map(i -> {
+                    var bits = new BitSet(parameterCount);
+                    if (i == 1) {
+                        bits.set(0, parameterCount);
+                    } else if (i > 1) {
+                        do {
+                            bits.clear();
+                            for (int j = 0; j < parameterCount; j++) {
+                                if (random.nextBoolean()) {
+                                    bits.set(j);
+                                }
+                            }
+                        } while (seen.contains(bits));
+                    }
+                    seen.add(bits);
+                    var combination = new boolean[parameterCount];
+                    for (int j = 0; j < parameterCount; j++) {
+                        combination[j] = bits.get(j);
+                    }
+                    return combination;
+                })
+                .limit(maxCombinations);
+    }
+
+    /**
+     * @return the number of uncovered combinations of the given column with the columns already set in the row
+     */
+    private static int countCoveredWith(int[] row, int column, int strength, Map<Long, Long> uncovered) {
+        long assigned = 0;
+        for (int j = 0; j < row.length; j++) {
+            if (row[j] >= 0 && j != column) {
+                assigned |= 1L << j;
+            }
+        }
+        var others = Long.bitCount(assigned);
+        if (others < strength - 1) {
+            return 0;
+        }
+        var count = new int[1];
+        var assignedColumns = new int[others];
+        int index = 0;
+        for (long bits = assigned; bits != 0; bits &= bits - 1) {
+            assignedColumns[index++] = Long.numberOfTrailingZeros(bits);
+        }
+        forEachSubset(others, strength - 1, subset -> {
+            long columns = 1L << column;
+            for (long bits = subset; bits != 0; bits &= bits - 1) {
+                columns |= 1L << assignedColumns[Long.numberOfTrailingZeros(bits)];
+            }
+            var values = uncovered.get(columns);
+            if (values != null && (values & (1L << valueOf(row, columns))) != 0) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private static int valueOf(int[] row, long columns) {
+        int value = 0;
+        int index = 0;
+        for (long bits = columns; bits != 0; bits &= bits - 1) {
+            value |= row[Long.numberOfTrailingZeros(bits)] << index++;
+        }
+        return value;
+    }
+
+    /**
+     * Calls the consumer with every subset of {@code size} out of {@code n} elements as bit mask, in lexicographic order
+     */
+    private static void forEachSubset(int n, int size, LongConsumer consumer) {
+        var subset = new int[size];
+        for (int i = 0; i < size; i++) {
+            subset[i] = i;
+        }
+        if (size == 0) {
+            consumer.accept(0);
+            return;
+        }
+        while (subset[0] <= n - size) {
+            long bits = 0;
+            for (int element : subset) {
+                bits |= 1L << element;
+            }
+            consumer.accept(bits);
+            if (!nextSubset(subset, n - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advances the subset to the next one in lexicographic order with elements up to {@code max}
+     *
+     * @return false if it was the last one
+     */
+    private static boolean nextSubset(int[] subset, int max) {
+        int i = subset.length - 1;
+        while (i >= 0 && subset[i] == max - (subset.length - 1 - i)) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        subset[i]++;
+        for (int j = i + 1; j < subset.length; j++) {
+            subset[j] = subset[j - 1] + 1;
+        }
+        return true;
+    }
+
+    private static long binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+}
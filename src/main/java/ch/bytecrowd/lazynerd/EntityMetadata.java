@@ -0,0 +1,153 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.ParamProvider.EntityTypeField;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Everything the templates need to know about an entity class, introspected once per {@link Class}.
+ * <p>
+ * The instances are held in a {@link ClassValue}, so they are unloaded together with the entity class.
+ */
+public final class EntityMetadata {
+
+    private static final ClassValue<EntityMetadata> METADATA = new ClassValue<>() {
+        @Override
+        protected EntityMetadata computeValue(Class<?> type) {
+            return new EntityMetadata(type);
+        }
+    };
+
+    private final Class<?> entityType;
+    private final Field idField;
+    private final String basePackage;
+    private final String entityRestResourceName;
+    private final String entityTypeVariableName;
+    private final List<EntityTypeField> entityTypeFields;
+    private final Map<String, Object> params;
+    private final String fingerprint;
+
+    private EntityMetadata(Class<?> entityType) {
+        this.entityType = entityType;
+        this.idField = Arrays.stream(entityType.getDeclaredFields())
+                .filter(ReflectionHelper::isAnnotatedWithId)
+                .findFirst()
+                .orElse(null);
+        this.basePackage = parentPackageName(entityType.getPackageName());
+        var entityTypeSimpleName = entityType.getSimpleName();
+        this.entityRestResourceName = restResourceName(entityTypeSimpleName);
+        this.entityTypeVariableName = variableName(entityTypeSimpleName);
+        this.entityTypeFields = Arrays.stream(entityType.getDeclaredFields())
+                .map(field -> ParamProvider.paramsFromEntityField(entityType, field))
+                .map(EntityTypeField::fromMap)
+                .toList();
+        this.params = params(
+                entityTypeSimpleName,
+                entityType.getName(),
+                getIdType().map(Class::getSimpleName).orElse(null),
+                getIdType().map(Class::getName).orElse(null),
+                entityTypeFields
+        );
+        this.fingerprint = fingerprint(params);
+    }
+
+    public static EntityMetadata of(Class<?> entityType) {
+        return METADATA.get(entityType);
+    }
+
+    /**
+     * @param entityTypeSimpleName
+     * @param entityTypeCanonicalName
+     * @param idTypeSimpleName        {@code null} if the entity has no id field
+     * @param idTypeCanonicalName     {@code null} if the entity has no id field
+     * @param entityTypeFields
+     * @return the params of an entity, the same for a loaded entity class and an entity source
+     */
+    static Map<String, Object> params(
+            String entityTypeSimpleName,
+            String entityTypeCanonicalName,
+            String idTypeSimpleName,
+            String idTypeCanonicalName,
+            List<EntityTypeField> entityTypeFields
+    ) {
+        var packageName = entityTypeCanonicalName.contains(".")
+                ? entityTypeCanonicalName.substring(0, entityTypeCanonicalName.lastIndexOf("."))
+                : "";
+        return Map.of(
+                "basePackage", parentPackageName(packageName),
+                "entityTypeSimpleName", entityTypeSimpleName,
+                "entityTypeCanonicalName", entityTypeCanonicalName,
+                "entityTypeVariableName", variableName(entityTypeSimpleName),
+                "idTypeSimpleName", idTypeSimpleName == null ? Integer.class.getSimpleName() : idTypeSimpleName,
+                "idTypeCanonicalName", idTypeCanonicalName == null ? Integer.class.getName() : idTypeCanonicalName,
+                "entityRestResourceName", restResourceName(entityTypeSimpleName),
+                "entityTypeFields", entityTypeFields
+        );
+    }
+
+    static String fingerprint(Map<String, Object> params) {
+        return Hashing.sha256(new TreeMap<>(params).toString());
+    }
+
+    static String parentPackageName(String packageName) {
+        var index = packageName.lastIndexOf(".");
+        return index < 0 ? "" : packageName.substring(0, index);
+    }
+
+    private static String restResourceName(String entityTypeSimpleName) {
+        return entityTypeSimpleName.replaceAll("(.)([A-Z])", "$1-$2").toLowerCase();
+    }
+
+    private static String variableName(String entityTypeSimpleName) {
+        return entityTypeSimpleName.isEmpty()
+                ? ""
+                : entityTypeSimpleName.substring(0, 1).toLowerCase() + entityTypeSimpleName.substring(1);
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Optional<Field> getIdField() {
+        return Optional.ofNullable(idField);
+    }
+
+    public Optional<Class> getIdType() {
+        return getIdField().map(Field::getType);
+    }
+
+    public String getBasePackage() {
+        return basePackage;
+    }
+
+    public String getEntityRestResourceName() {
+        return entityRestResourceName;
+    }
+
+    public String getEntityTypeVariableName() {
+        return entityTypeVariableName;
+    }
+
+    public List<EntityTypeField> getEntityTypeFields() {
+        return entityTypeFields;
+    }
+
+    /**
+     * @return the immutable params as provided by {@link ParamProvider#paramsFromEntity(Class)}
+     */
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    /**
+     * @return a hash of the params, which is stable across JVM runs as long as the entity does not change
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,96 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The arguments of a generation by the command line, see {@link Main}
+ *
+ * @param outputRoot    '--output', defaults to 'target/generated-sources/lazy-nerd'
+ * @param stateFile     '--state', defaults to 'target/lazy-nerd/generation-state'
+ * @param entitySources '--entity', the '.java' files of the entities
+ * @param templates     '--template', the names of constants in {@link Templates} or paths of template files
+ */
+record GenerateRequest(Path outputRoot, Path stateFile, List<Path> entitySources, List<String> templates) {
+
+    static final Path DEFAULT_OUTPUT_ROOT = Path.of("target", "generated-sources", "lazy-nerd");
+    static final Path DEFAULT_STATE_FILE = Path.of("target", "lazy-nerd", "generation-state");
+
+    GenerateRequest {
+        entitySources = List.copyOf(entitySources);
+        templates = List.copyOf(templates);
+    }
+
+    /**
+     * @param args e.g. ['--entity', 'src/main/java/com/example/Book.java', '--template', 'QUARKUS_REPOSITORY']
+     * @return the request
+     * @throws IllegalArgumentException if an option is unknown, has no value or no entity or template is given
+     */
+    static GenerateRequest parse(List<String> args) {
+        var outputRoot = DEFAULT_OUTPUT_ROOT;
+        var stateFile = DEFAULT_STATE_FILE;
+        var entitySources = new ArrayList<Path>();
+        var templates = new ArrayList<String>();
+        for (var i = 0; i < args.size(); i += 2) {
+            var option = args.get(i);
+            if (i + 1 >= args.size()) {
+                throw new IllegalArgumentException(option + " requires a value");
+            }
+            var value = args.get(i + 1);
+            switch (option) {
+                case "--output" -> outputRoot = Path.of(value);
+                case "--state" -> stateFile = Path.of(value);
+                case "--entity" -> entitySources.add(Path.of(value));
+                case "--template" -> templates.add(value);
+                default -> throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        if (entitySources.isEmpty() || templates.isEmpty()) {
+            throw new IllegalArgumentException("at least one --entity and one --template are required");
+        }
+        return new GenerateRequest(outputRoot, stateFile, entitySources, templates);
+    }
+
+    List<String> toArgs() {
+        var args = new ArrayList<String>();
+        args.addAll(List.of("--output", outputRoot.toString(), "--state", stateFile.toString()));
+        entitySources.forEach(entitySource -> args.addAll(List.of("--entity", entitySource.toString())));
+        templates.forEach(template -> args.addAll(List.of("--template", template)));
+        return args;
+    }
+
+    /**
+     * @param workingDirectory
+     * @return the request with absolute paths, templates which are not constants of {@link Templates} are paths
+     */
+    GenerateRequest resolve(Path workingDirectory) {
+        return new GenerateRequest(
+                workingDirectory.resolve(outputRoot).normalize(),
+                workingDirectory.resolve(stateFile).normalize(),
+                entitySources.stream().map(entitySource -> workingDirectory.resolve(entitySource).normalize()).toList(),
+                templates.stream()
+                        .map(template -> Templates.named(template).isPresent()
+                                ? template
+                                : workingDirectory.resolve(template).normalize().toString())
+                        .toList()
+        );
+    }
+
+    /**
+     * @return the templates by their name as given
+     * @throws IOException if a template file can not be read
+     */
+    Map<String, String> readTemplates() throws IOException {
+        var templatesByName = new LinkedHashMap<String, String>();
+        for (var template : templates) {
+            var predefined = Templates.named(template);
+            templatesByName.put(template, predefined.isPresent() ? predefined.get() : Files.readString(Path.of(template)));
+        }
+        return templatesByName;
+    }
+}
@@ -0,0 +1,168 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of rendered templates which survives across builds.
+ * <p>
+ * The entries are addressed by the hash of the template text and the {@link EntityMetadata#getFingerprint()}
+ * of the entity, a hit skips the rendering entirely. The least recently used entries are evicted
+ * as soon as the cache grows beyond its maximum size.
+ */
+public final class GenerationCache {
+
+    public static final Path DEFAULT_DIRECTORY = Path.of("target", "lazy-nerd-cache");
+    public static final long DEFAULT_MAX_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * part of every key, has to be increased whenever the rendering of the same template and params changes,
+     * which is guarded by the fingerprint of the rendering in GenerationCacheTest
+     */
+    static final String CACHE_VERSION = "2";
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sizeInBytes;
+
+    /**
+     * @param directory      e.g. 'target/lazy-nerd-cache'
+     * @param maxSizeInBytes the size of all entries after which the least recently used ones are evicted
+     * @throws IOException
+     */
+    public GenerationCache(Path directory, long maxSizeInBytes) throws IOException {
+        this.directory = directory;
+        this.maxSizeInBytes = maxSizeInBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> entries = Files.list(directory)) {
+            this.sizeInBytes = new AtomicLong(entries
+                    .filter(GenerationCache::isEntry)
+                    .mapToLong(GenerationCache::sizeOf)
+                    .sum());
+        }
+    }
+
+    /**
+     * @return a cache in 'target/lazy-nerd-cache' bounded to 64 MB
+     * @throws IOException
+     */
+    public static GenerationCache inTargetDirectory() throws IOException {
+        return new GenerationCache(DEFAULT_DIRECTORY, DEFAULT_MAX_SIZE_IN_BYTES);
+    }
+
+    /**
+     * @param template
+     * @param entity
+     * @return the cached output of the template for the entity, rendered and stored on a miss
+     */
+    public String render(CompiledTemplate template, Class<?> entity) {
+        var metadata = EntityMetadata.of(entity);
+        var entry = directory.resolve(key(template, metadata));
+        try {
+            var cached = Files.readString(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return cached;
+        } catch (NoSuchFileException e) {
+            // not cached yet or evicted meanwhile
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        misses.incrementAndGet();
+        var generated = template.render(metadata::getParams);
+        try {
+            store(entry, generated);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return generated;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes.get();
+    }
+
+    static String key(CompiledTemplate template, EntityMetadata metadata) {
+        return Hashing.sha256(CACHE_VERSION + "\n" + template.getTemplate()) + "-" + metadata.getFingerprint();
+    }
+
+    /**
+     * Two threads storing the same new entry can both see it created, so the size is only an estimate
+     * which may be too high. It is recomputed from the entries before anything is evicted.
+     */
+    private void store(Path entry, String generated) throws IOException {
+        var result = SourceFileWriter.write(entry, generated, SourceFileWriter.Mode.IF_CHANGED);
+        if (result == SourceFileWriter.Result.CREATED && sizeInBytes.addAndGet(sizeOf(entry)) > maxSizeInBytes) {
+            evict();
+        }
+    }
+
+    private synchronized void evict() throws IOException {
+        if (sizeInBytes.get() <= maxSizeInBytes) {
+            return;
+        }
+        var counted = sizeInBytes.get();
+        List<CachedEntry> cachedEntries;
+        try (Stream<Path> entries = Files.list(directory)) {
+            cachedEntries = entries
+                    .filter(GenerationCache::isEntry)
+                    .map(entry -> new CachedEntry(entry, sizeOf(entry), lastModifiedTime(entry)))
+                    .sorted(Comparator.comparing(CachedEntry::lastModifiedTime))
+                    .toList();
+        }
+        var size = cachedEntries.stream().mapToLong(CachedEntry::size).sum();
+        for (var iterator = cachedEntries.iterator(); size > maxSizeInBytes && iterator.hasNext(); ) {
+            var entry = iterator.next();
+            if (Files.deleteIfExists(entry.path())) {
+                size -= entry.size();
+            }
+        }
+        // entries stored after the listing stay counted by their threads
+        sizeInBytes.addAndGet(size - counted);
+    }
+
+    private record CachedEntry(Path path, long size, FileTime lastModifiedTime) {
+    }
+
+    /**
+     * @return false for the temporary files of entries which are being written
+     */
+    private static boolean isEntry(Path path) {
+        return !path.getFileName().toString().endsWith(".tmp");
+    }
+
+    private static long sizeOf(Path entry) {
+        try {
+            return Files.size(entry);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ch.bytecrowd.lazynerd;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The outcome of {@link TemplateFiller#generateAll}
+ *
+ * @param generatedFiles the generated source files
+ * @param failures       the entity/template pairs which could not be generated
+ */
+public record GenerationSummary(List<GeneratedFile> generatedFiles, List<Failure> failures) {
+
+    public GenerationSummary {
+        generatedFiles = List.copyOf(generatedFiles);
+        failures = List.copyOf(failures);
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return the files which have been created or rewritten
+     */
+    public List<Path> writtenFiles() {
+        return generatedFiles.stream()
+                .filter(file -> file.result() != SourceFileWriter.Result.UNCHANGED)
+                .map(GeneratedFile::path)
+                .toList();
+    }
+
+    /**
+     * @return the files whose content was already up to date
+     */
+    public List<Path> unchangedFiles() {
+        return generatedFiles.stream()
+                .filter(file -> file.result() == SourceFileWriter.Result.UNCHANGED)
+                .map(GeneratedFile::path)
+                .toList();
+    }
+
+    public record GeneratedFile(Path path, SourceFileWriter.Result result) {
+    }
+
+    public record Failure(Class<?> entity, String template, Throwable cause) {
+    }
+}
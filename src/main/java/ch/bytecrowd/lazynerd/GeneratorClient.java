@@ -0,0 +1,78 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Forwards a request to a {@link GeneratorDaemon} and prints its response
+ */
+public final class GeneratorClient {
+
+    private GeneratorClient() {
+
+    }
+
+    /**
+     * @param socket  the socket of the daemon
+     * @param request the command and its arguments, e.g. ['generate', '--entity', '/tmp/Book.java', '--template', 'QUARKUS_REPOSITORY'],
+     *                paths have to be absolute, the daemon does not share the working directory of the client
+     * @param out     receives the output of the daemon
+     * @return the exit code of the request
+     * @throws IOException if the daemon is not running or closes the connection without an exit code
+     */
+    public static int send(Path socket, List<String> request, PrintStream out) throws IOException {
+        var channel = connect(socket)
+                .orElseThrow(() -> new IOException("no daemon is listening on " + socket));
+        return send(channel, request, out);
+    }
+
+    /**
+     * @param socket
+     * @return the connection to the daemon, empty if the socket does not exist or is left over by a daemon which is no longer running
+     */
+    static Optional<SocketChannel> connect(Path socket) {
+        if (!Files.exists(socket)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SocketChannel.open(UnixDomainSocketAddress.of(socket)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param channel the connection to the daemon, closed by this method
+     * @param request
+     * @param out
+     * @return the exit code of the request
+     * @throws IOException if the daemon closes the connection without an exit code
+     */
+    static int send(SocketChannel channel, List<String> request, PrintStream out) throws IOException {
+        try (channel) {
+            var writer = new PrintWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            request.forEach(writer::println);
+            writer.println();
+            writer.flush();
+
+            var reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(GeneratorDaemon.EXIT)) {
+                    return Integer.parseInt(line.substring(GeneratorDaemon.EXIT.length()));
+                }
+                out.println(line);
+            }
+        }
+        throw new IOException("the daemon closed the connection without a response");
+    }
+}
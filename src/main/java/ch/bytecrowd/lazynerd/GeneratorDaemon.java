@@ -0,0 +1,204 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Serves generation requests on a Unix domain socket, so a generation does not pay the startup of a JVM.
+ * <p>
+ * The parsed entity sources ({@link ParseCache#shared()}), the compiled templates and the JIT compiled code
+ * stay warm between the requests. A request consists of the command and its arguments, one per line,
+ * terminated by an empty line. The response is the output of the generation, one message per line,
+ * followed by the line 'exit' and the exit code.
+ */
+public final class GeneratorDaemon implements Closeable {
+
+    static final String GENERATE = "generate";
+    static final String STOP = "stop";
+    static final String EXIT = "exit ";
+
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final Path socket;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "lazy-nerd-daemon-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * by the state file and the output root
+     */
+    private final Map<List<Path>, IncrementalGeneration> generations = new ConcurrentHashMap<>();
+
+    private GeneratorDaemon(Path socket, ServerSocketChannel server) {
+        this.socket = socket;
+        this.server = server;
+    }
+
+    /**
+     * @param socket the path of the socket file, a stale socket of a daemon which is no longer running is replaced
+     * @return a daemon which accepts requests as soon as it is {@link #serve() served}
+     * @throws IOException
+     * @throws IllegalStateException if another daemon is listening on the socket or the path exists and is not a socket
+     */
+    public static GeneratorDaemon bind(Path socket) throws IOException {
+        if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+            if (!isSocket(socket)) {
+                throw new IllegalStateException(socket + " exists and is not a socket");
+            }
+            var running = GeneratorClient.connect(socket);
+            if (running.isPresent()) {
+                running.get().close();
+                throw new IllegalStateException("a daemon is already listening on " + socket);
+            }
+            Files.delete(socket);
+        }
+        var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        return new GeneratorDaemon(socket, server);
+    }
+
+    /**
+     * @return true if the file type bits of the mode are the ones of a socket, false if they can not be read
+     */
+    private static boolean isSocket(Path path) throws IOException {
+        try {
+            var mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            return (mode & S_IFMT) == S_IFSOCK;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accepts requests until the daemon is closed or a 'stop' request is received
+     *
+     * @throws IOException
+     */
+    public void serve() throws IOException {
+        try {
+            while (server.isOpen()) {
+                var channel = server.accept();
+                connections.execute(() -> handle(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // closed by a stop request or another thread
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // unlinked first, so the socket is gone once serve() returns
+        Files.deleteIfExists(socket);
+        server.close();
+        connections.shutdown();
+    }
+
+    public Path getSocket() {
+        return socket;
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            var reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            var request = new ArrayList<String>();
+            for (var line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+                request.add(line);
+            }
+            var out = new PrintWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            var exitCode = handle(request, out);
+            out.println(EXIT + exitCode);
+            out.flush();
+            if (request.size() == 1 && STOP.equals(request.get(0))) {
+                close();
+            }
+        } catch (IOException e) {
+            // the client is gone, there is nobody to respond to
+            System.err.println("dropped a connection to the daemon on " + socket + ": " + e);
+        }
+    }
+
+    private int handle(List<String> request, PrintWriter out) {
+        if (request.isEmpty()) {
+            out.println("empty request");
+            return 2;
+        }
+        if (STOP.equals(request.get(0))) {
+            out.println("stopping the daemon on " + socket);
+            return 0;
+        }
+        if (!GENERATE.equals(request.get(0))) {
+            out.println("unknown command " + request.get(0));
+            return 2;
+        }
+        GenerateRequest generateRequest;
+        try {
+            generateRequest = GenerateRequest.parse(request.subList(1, request.size()));
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            return 2;
+        }
+        try {
+            var generation = generations.computeIfAbsent(
+                    List.of(generateRequest.stateFile(), generateRequest.outputRoot()),
+                    key -> new IncrementalGeneration(generateRequest.stateFile(), generateRequest.outputRoot())
+            );
+            return generate(generation, generateRequest, out);
+        } catch (RuntimeException e) {
+            out.println("could not handle the request: " + singleLine(String.valueOf(e)));
+            return 1;
+        }
+    }
+
+    /**
+     * Runs the generation of the request and prints its outcome
+     *
+     * @param generation
+     * @param request
+     * @param out
+     * @return the exit code, 0 if every pair has been generated, 1 if the generation failed
+     */
+    static int generate(IncrementalGeneration generation, GenerateRequest request, PrintWriter out) {
+        IncrementalGeneration.Result result;
+        try {
+            result = generation.run(request.entitySources(), request.readTemplates(), ForkJoinPool.commonPool());
+        } catch (IOException | RuntimeException e) {
+            out.println("could not generate the sources: " + singleLine(e.getMessage()));
+            return 1;
+        }
+        result.writtenFiles().forEach(file -> out.println("written " + file));
+        result.deletedFiles().forEach(file -> out.println("deleted " + file));
+        result.failures().forEach(failure -> out.println(
+                "failed " + failure.entitySource() + " / " + failure.templateName() + ": " + singleLine(failure.cause().getMessage())
+        ));
+        out.println("Generated " + result.writtenFiles().size() + " file(s), "
+                + result.upToDateFiles().size() + " up to date, "
+                + result.deletedFiles().size() + " deleted");
+        return result.isSuccessful() ? 0 : 1;
+    }
+
+    private static String singleLine(String message) {
+        return String.valueOf(message).replace('\n', ' ');
+    }
+}
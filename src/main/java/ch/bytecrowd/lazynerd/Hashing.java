@@ -0,0 +1,27 @@
+package ch.bytecrowd.lazynerd;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+final class Hashing {
+
+    private Hashing() {
+
+    }
+
+    /**
+     * @param text
+     * @return the hex encoded SHA-256 hash of the UTF-8 encoded text
+     */
+    static String sha256(String text) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
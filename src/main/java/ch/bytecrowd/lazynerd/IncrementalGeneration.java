@@ -0,0 +1,236 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the templates for entity sources, but only the entity/template pairs whose inputs changed since the last run.
+ * <p>
+ * The entities are read by {@link SourceEntityMetadata}, they do not have to be compiled. The hashes of the inputs
+ * and the generated files are tracked in a state file: the first line holds the format version, every other line
+ * is an entry of tab separated values. A pair is stale if its entity source or template changed, if one of the package
+ * directories or sources looked up to resolve the types of the entity has been added or removed, if the generator
+ * version changed or if its generated file is missing. The files of pairs which are no longer configured are deleted.
+ * <p>
+ * An instance can be reused for many runs, e.g. by the {@link GeneratorDaemon}, it keeps the compiled templates.
+ */
+public final class IncrementalGeneration {
+
+    private static final String FORMAT = "#lazy-nerd-generation-state-2";
+    /**
+     * part of every input hash, the metadata and the rendering of the same inputs may change with the generator
+     */
+    static final String GENERATOR_VERSION = Objects.requireNonNullElse(IncrementalGeneration.class.getPackage().getImplementationVersion(), "development")
+            + "/" + GenerationCache.CACHE_VERSION;
+
+    private final Path stateFile;
+    private final Path outputRoot;
+    /**
+     * by the name of the template, only the current version of every configured template is kept
+     */
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * @param stateFile  e.g. 'target/lazy-nerd/generation-state'
+     * @param outputRoot e.g. 'target/generated-sources/lazy-nerd'
+     */
+    public IncrementalGeneration(Path stateFile, Path outputRoot) {
+        this.stateFile = stateFile;
+        this.outputRoot = outputRoot;
+    }
+
+    /**
+     * @param entitySources the '.java' files of the entities
+     * @param templates     the templates by a stable name, e.g. the name of the constant in {@link Templates} or the template file
+     * @param executor      renders and writes the stale pairs
+     * @return the outcome of the run, failed pairs are generated again by the next run
+     * @throws IOException if the entity sources or the state file can not be read or written
+     */
+    public synchronized Result run(Collection<Path> entitySources, Map<String, String> templates, Executor executor) throws IOException {
+        var previousState = readState();
+        compiledTemplates.keySet().retainAll(templates.keySet());
+        var templateHashes = new LinkedHashMap<String, String>();
+        templates.forEach((name, template) -> templateHashes.put(name, Hashing.sha256(template)));
+
+        var state = new ArrayList<Entry>();
+        var upToDateFiles = new ArrayList<Path>();
+        var tasks = new ArrayList<GenerationTask>();
+        var metadata = new ConcurrentHashMap<Path, SourceEntityMetadata>();
+        var lookups = new HashMap<Path, String>();
+        for (var entitySource : entitySources) {
+            var entityHash = Hashing.sha256(Files.readString(entitySource));
+            for (var template : templateHashes.entrySet()) {
+                var key = new Key(entitySource.toString(), template.getKey());
+                var inputs = GENERATOR_VERSION + "\n" + entityHash + "\n" + template.getValue();
+                var previous = previousState.get(key);
+                if (previous != null
+                        && previous.inputHash().equals(inputHash(inputs, previous.sourceDependencies(), lookups))
+                        && Files.exists(previous.outputFile())) {
+                    state.add(previous);
+                    upToDateFiles.add(previous.outputFile());
+                    continue;
+                }
+                var future = CompletableFuture.supplyAsync(() -> {
+                    var compiled = compiledTemplates.compute(template.getKey(), (name, current) ->
+                            current != null && current.getTemplate().equals(templates.get(name))
+                                    ? current
+                                    : CompiledTemplate.compile(templates.get(name)));
+                    var entityMetadata = metadata.computeIfAbsent(entitySource, SourceEntityMetadata::of);
+                    try {
+                        var generatedFile = TemplateFiller.writeSourceFile(outputRoot.toString(), compiled.render(entityMetadata::getParams), SourceFileWriter.Mode.IF_CHANGED);
+                        return new Generation(generatedFile, entityMetadata.getSourceDependencies());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+                tasks.add(new GenerationTask(key, inputs, future));
+            }
+        }
+
+        var writtenFiles = new ArrayList<Path>();
+        var failures = new ArrayList<Failure>();
+        for (var task : tasks) {
+            try {
+                var generation = task.future().join();
+                var generatedFile = generation.generatedFile();
+                var sourceDependencies = generation.sourceDependencies();
+                state.add(new Entry(task.key(), inputHash(task.inputs(), sourceDependencies, lookups), generatedFile.path(), sourceDependencies));
+                if (generatedFile.result() == SourceFileWriter.Result.UNCHANGED) {
+                    upToDateFiles.add(generatedFile.path());
+                } else {
+                    writtenFiles.add(generatedFile.path());
+                }
+            } catch (CompletionException e) {
+                failures.add(new Failure(Path.of(task.key().entitySource()), task.key().templateName(), e.getCause()));
+            }
+        }
+
+        var deletedFiles = deleteRemovedOutputs(previousState, state, failures);
+        writeState(state);
+        return new Result(writtenFiles, upToDateFiles, deletedFiles, failures);
+    }
+
+    /**
+     * @param inputs             the generator version and the hashes of the entity source and the template
+     * @param sourceDependencies the directories and files looked up by the metadata of the entity
+     * @param lookups            whether the looked up paths exist, by path, shared by the pairs of a run
+     */
+    private static String inputHash(String inputs, List<Path> sourceDependencies, Map<Path, String> lookups) {
+        var builder = new StringBuilder(inputs);
+        for (var sourceDependency : sourceDependencies) {
+            builder.append('\n').append(sourceDependency).append('\t').append(lookups.computeIfAbsent(sourceDependency, path ->
+                    Files.isDirectory(path) ? "directory" : Files.isRegularFile(path) ? "file" : "missing"));
+        }
+        return Hashing.sha256(builder.toString());
+    }
+
+    /**
+     * @return the files of the previous run which are neither generated nor kept by a failed pair of this run
+     */
+    private static List<Path> deleteRemovedOutputs(Map<Key, Entry> previousState, List<Entry> state, List<Failure> failures) throws IOException {
+        var keptFiles = new HashSet<Path>();
+        state.forEach(entry -> keptFiles.add(entry.outputFile()));
+        failures.stream()
+                .map(failure -> previousState.get(new Key(failure.entitySource().toString(), failure.templateName())))
+                .filter(Objects::nonNull)
+                .forEach(entry -> keptFiles.add(entry.outputFile()));
+
+        var deletedFiles = new ArrayList<Path>();
+        for (var entry : previousState.values()) {
+            if (keptFiles.add(entry.outputFile()) && Files.deleteIfExists(entry.outputFile())) {
+                deletedFiles.add(entry.outputFile());
+            }
+        }
+        return deletedFiles;
+    }
+
+    private Map<Key, Entry> readState() throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(stateFile);
+        } catch (NoSuchFileException e) {
+            return Map.of();
+        }
+        var entries = new LinkedHashMap<Key, Entry>();
+        if (lines.isEmpty() || !lines.get(0).equals(FORMAT)) {
+            return entries;
+        }
+        for (var line : lines.subList(1, lines.size())) {
+            var values = line.split("\t", -1);
+            if (values.length != 5) {
+                return Map.of();
+            }
+            var key = new Key(values[0], values[1]);
+            var sourceDependencies = values[4].isEmpty()
+                    ? List.<Path>of()
+                    : Stream.of(values[4].split(File.pathSeparator)).map(Path::of).toList();
+            entries.put(key, new Entry(key, values[2], Path.of(values[3]), sourceDependencies));
+        }
+        return entries;
+    }
+
+    private void writeState(List<Entry> state) throws IOException {
+        var builder = new StringBuilder(FORMAT).append('\n');
+        for (var entry : state) {
+            builder.append(entry.key().entitySource()).append('\t')
+                    .append(entry.key().templateName()).append('\t')
+                    .append(entry.inputHash()).append('\t')
+                    .append(entry.outputFile()).append('\t')
+                    .append(entry.sourceDependencies().stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator))).append('\n');
+        }
+        SourceFileWriter.write(stateFile, builder.toString(), SourceFileWriter.Mode.IF_CHANGED);
+    }
+
+    private record Key(String entitySource, String templateName) {
+    }
+
+    private record Entry(Key key, String inputHash, Path outputFile, List<Path> sourceDependencies) {
+    }
+
+    private record Generation(GenerationSummary.GeneratedFile generatedFile, List<Path> sourceDependencies) {
+    }
+
+    private record GenerationTask(Key key, String inputs, CompletableFuture<Generation> future) {
+    }
+
+    /**
+     * @param writtenFiles  the files which have been created or rewritten
+     * @param upToDateFiles the files of the pairs which did not change, or whose output did not change
+     * @param deletedFiles  the files of the pairs which are no longer configured
+     * @param failures      the pairs which could not be generated
+     */
+    public record Result(List<Path> writtenFiles, List<Path> upToDateFiles, List<Path> deletedFiles, List<Failure> failures) {
+
+        public Result {
+            writtenFiles = List.copyOf(writtenFiles);
+            upToDateFiles = List.copyOf(upToDateFiles);
+            deletedFiles = List.copyOf(deletedFiles);
+            failures = List.copyOf(failures);
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+    }
+
+    public record Failure(Path entitySource, String templateName, Throwable cause) {
+    }
+}
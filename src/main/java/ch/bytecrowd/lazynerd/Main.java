@@ -0,0 +1,93 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The command line of the shaded jar
+ * <pre>
+ * java -jar lazy-nerd.jar daemon [--socket &lt;socket&gt;]
+ * java -jar lazy-nerd.jar generate [--socket &lt;socket&gt;] [--output &lt;dir&gt;] [--state &lt;file&gt;] --entity &lt;source&gt;... --template &lt;name|file&gt;...
+ * java -jar lazy-nerd.jar stop [--socket &lt;socket&gt;]
+ * </pre>
+ * 'generate' is forwarded to the daemon if one is listening on the socket, otherwise it runs in this JVM,
+ * also if the socket is left over by a daemon which has been killed.
+ */
+public final class Main {
+
+    static final Path DEFAULT_SOCKET = Path.of(System.getProperty("java.io.tmpdir"), "lazy-nerd-" + System.getProperty("user.name") + ".sock");
+
+    private static final String USAGE = """
+            usage: java -jar lazy-nerd.jar daemon [--socket <socket>]
+                   java -jar lazy-nerd.jar generate [--socket <socket>] [--output <dir>] [--state <file>] --entity <source>... --template <name|file>...
+                   java -jar lazy-nerd.jar stop [--socket <socket>]""";
+
+    private Main() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.exit(run(List.of(args), Path.of("").toAbsolutePath(), System.out));
+    }
+
+    /**
+     * @param args
+     * @param workingDirectory the paths of the arguments are relative to
+     * @param out
+     * @return the exit code
+     * @throws IOException
+     */
+    static int run(List<String> args, Path workingDirectory, PrintStream out) throws IOException {
+        if (args.isEmpty()) {
+            out.println(USAGE);
+            return 2;
+        }
+        var arguments = new ArrayList<>(args.subList(1, args.size()));
+        var socket = DEFAULT_SOCKET;
+        var socketIndex = arguments.indexOf("--socket");
+        if (socketIndex >= 0 && socketIndex + 1 < arguments.size()) {
+            socket = workingDirectory.resolve(arguments.remove(socketIndex + 1));
+            arguments.remove(socketIndex);
+        }
+
+        try {
+            switch (args.get(0)) {
+                case GeneratorDaemon.GENERATE -> {
+                    var request = GenerateRequest.parse(arguments).resolve(workingDirectory);
+                    var daemon = GeneratorClient.connect(socket);
+                    if (daemon.isPresent()) {
+                        var forwarded = new ArrayList<String>();
+                        forwarded.add(GeneratorDaemon.GENERATE);
+                        forwarded.addAll(request.toArgs());
+                        return GeneratorClient.send(daemon.get(), forwarded, out);
+                    }
+                    var writer = new PrintWriter(out, true);
+                    var exitCode = GeneratorDaemon.generate(new IncrementalGeneration(request.stateFile(), request.outputRoot()), request, writer);
+                    writer.flush();
+                    return exitCode;
+                }
+                case GeneratorDaemon.STOP -> {
+                    return GeneratorClient.send(socket, List.of(GeneratorDaemon.STOP), out);
+                }
+                case "daemon" -> {
+                    try (var daemon = GeneratorDaemon.bind(socket)) {
+                        out.println("listening on " + daemon.getSocket());
+                        daemon.serve();
+                    }
+                    return 0;
+                }
+                default -> {
+                    out.println(USAGE);
+                    return 2;
+                }
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            out.println(e.getMessage());
+            return 2;
+        }
+    }
+}
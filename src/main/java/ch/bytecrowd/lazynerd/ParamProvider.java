@@ -2,7 +2,7 @@ package ch.bytecrowd.lazynerd;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 @FunctionalInterface
@@ -10,20 +10,33 @@ public interface ParamProvider {
 
     static Map<String, Object> paramsFromEntityField(Class entity, Field field) {
         var genericTypeCanonical = "";
+        if (field.getGenericType() instanceof ParameterizedType parameterizedType && parameterizedType.getActualTypeArguments().length > 0) {
+            genericTypeCanonical = parameterizedType.getActualTypeArguments()[0].getTypeName();
+        }
+        return paramsFromEntityField(entity.getSimpleName(), field.getName(), field.getType().getSimpleName(), genericTypeCanonical);
+    }
+
+    /**
+     * @param entityTypeSimpleName
+     * @param fieldName
+     * @param fieldTypeSimpleName  the simple name of the erased field type, e.g. 'List'
+     * @param genericTypeCanonical the name of the first type argument, e.g. 'java.lang.String', or an empty string
+     * @return the params of a field, the same for a loaded entity class and an entity source
+     */
+    static Map<String, Object> paramsFromEntityField(String entityTypeSimpleName, String fieldName, String fieldTypeSimpleName, String genericTypeCanonical) {
         var genericType = "";
         var genericTypeVariable = "";
-        if (field.getGenericType() instanceof ParameterizedType parameterizedType && parameterizedType.getActualTypeArguments().length > 0) {
-            genericTypeCanonical = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0].getTypeName();
+        if (!genericTypeCanonical.isEmpty()) {
             genericType = genericTypeCanonical.substring(genericTypeCanonical.lastIndexOf(".") + 1);
             genericTypeVariable = genericType.substring(0, 1).toLowerCase() + genericType.substring(1);
         }
 
         return Map.of(
-                "entityTypeSimpleName", entity.getSimpleName(),
-                "fieldType", field.getType().getSimpleName() + (genericType.isBlank() ? "" : "<" + genericType + ">"),
-                "fieldName", field.getName(),
-                "fieldNamePascalCase", field.getName().substring(0, 1).toUpperCase() + field.getName().substring(1),
-                "fieldNameUpperCase", field.getName().replaceAll("(.)([A-Z])", "$1_$2").toUpperCase(),
+                "entityTypeSimpleName", entityTypeSimpleName,
+                "fieldType", fieldTypeSimpleName + (genericType.isBlank() ? "" : "<" + genericType + ">"),
+                "fieldName", fieldName,
+                "fieldNamePascalCase", fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1),
+                "fieldNameUpperCase", fieldName.replaceAll("(.)([A-Z])", "$1_$2").toUpperCase(),
                 "genericType", genericType,
                 "genericTypeVariable", genericTypeVariable
         );
@@ -38,6 +51,18 @@ public interface ParamProvider {
             String genericType,
             String genericTypeVariable
     ) {
+
+        /**
+         * @param entityTypeSimpleName
+         * @param fieldName
+         * @param fieldTypeSimpleName  the simple name of the erased field type, e.g. 'List'
+         * @param genericTypeCanonical the name of the first type argument, e.g. 'java.lang.String', or an empty string
+         * @return the field of an entity which is not loaded as a class, e.g. read from its source
+         */
+        public static EntityTypeField of(String entityTypeSimpleName, String fieldName, String fieldTypeSimpleName, String genericTypeCanonical) {
+            return fromMap(paramsFromEntityField(entityTypeSimpleName, fieldName, fieldTypeSimpleName, genericTypeCanonical));
+        }
+
         static EntityTypeField fromMap(Map<String, Object> map) {
             return new EntityTypeField(
                     map.get("entityTypeSimpleName") + "",
@@ -51,32 +76,30 @@ public interface ParamProvider {
         }
     }
 
+    /**
+     * @param clazz
+     * @return the params of the entity, introspected once per class by {@link EntityMetadata}
+     */
     static Map<String, Object> paramsFromEntity(Class clazz) {
-        var basePackage = ReflectionHelper.getParentPackageName(clazz);
-        var entityTypeSimpleName = clazz.getSimpleName();
-        var entityTypeCanonicalName = clazz.getName();
-        var idTypeSimpleName = ReflectionHelper.getIdType(clazz)
-                .map(Class::getSimpleName)
-                .orElse(Integer.class.getSimpleName());
-        var idTypeCanonicalName = ReflectionHelper.getIdType(clazz)
-                .map(Class::getName)
-                .orElse(Integer.class.getName());
-        var entityRestResourceName = entityTypeSimpleName.replaceAll("(.)([A-Z])", "$1-$2").toLowerCase();
-        var entityTypeFields = Arrays.stream(clazz.getDeclaredFields())
-                .map(field -> paramsFromEntityField(clazz, field))
-                .map(EntityTypeField::fromMap)
-                .toList();
+        return EntityMetadata.of(clazz).getParams();
+    }
 
-        return Map.of(
-                "basePackage", basePackage,
-                "entityTypeSimpleName", entityTypeSimpleName,
-                "entityTypeCanonicalName", entityTypeCanonicalName,
-                "entityTypeVariableName", entityTypeSimpleName.substring(0, 1).toLowerCase() + entityTypeSimpleName.substring(1),
-                "idTypeSimpleName", idTypeSimpleName,
-                "idTypeCanonicalName", idTypeCanonicalName,
-                "entityRestResourceName", entityRestResourceName,
-                "entityTypeFields", entityTypeFields
-        );
+    /**
+     * @param entityTypeSimpleName
+     * @param entityTypeCanonicalName the binary name of the entity, e.g. 'ch.bytecrowd.lazynerd.model.Book'
+     * @param idTypeSimpleName        {@code null} if the entity has no id field
+     * @param idTypeCanonicalName     {@code null} if the entity has no id field
+     * @param entityTypeFields
+     * @return the same params as {@link #paramsFromEntity(Class)} for an entity which is not loaded as a class
+     */
+    static Map<String, Object> paramsFromEntity(
+            String entityTypeSimpleName,
+            String entityTypeCanonicalName,
+            String idTypeSimpleName,
+            String idTypeCanonicalName,
+            List<EntityTypeField> entityTypeFields
+    ) {
+        return EntityMetadata.params(entityTypeSimpleName, entityTypeCanonicalName, idTypeSimpleName, idTypeCanonicalName, entityTypeFields);
     }
 
     Map<String, Object> provideParams();
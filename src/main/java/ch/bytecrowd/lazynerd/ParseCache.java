@@ -0,0 +1,152 @@
+package ch.bytecrowd.lazynerd;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of parsed source files, keyed by the path and validated by the last modified time and size of the file.
+ * <p>
+ * The memory bound is approximated by the size of the cached source files and the number of entries, the least
+ * recently used entries are evicted first. An AST takes about 30 times the size of its source.
+ * <p>
+ * Every caller gets its own copy of the cached {@link CompilationUnit}, the nodes of JavaParser are not thread-safe,
+ * even printing a node stores its printer in the node. The cached units themselves are only read by the copying.
+ * Every thread parses with its own {@link JavaParser}, all of them share one {@link ParserConfiguration}.
+ */
+public final class ParseCache {
+
+    public static final long DEFAULT_MAX_SOURCE_SIZE_IN_BYTES = 4L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private static final ParserConfiguration PARSER_CONFIGURATION = new ParserConfiguration();
+    private static final ThreadLocal<JavaParser> PARSER = ThreadLocal.withInitial(() -> new JavaParser(PARSER_CONFIGURATION));
+    private static final ParseCache SHARED = new ParseCache(DEFAULT_MAX_SOURCE_SIZE_IN_BYTES, DEFAULT_MAX_ENTRIES);
+
+    private final long maxSourceSizeInBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sourceSizeInBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSourceSizeInBytes the size of all cached source files after which the least recently used ones are evicted
+     */
+    public ParseCache(long maxSourceSizeInBytes) {
+        this(maxSourceSizeInBytes, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxSourceSizeInBytes the size of all cached source files after which the least recently used ones are evicted
+     * @param maxEntries           the number of cached files after which the least recently used ones are evicted
+     */
+    public ParseCache(long maxSourceSizeInBytes, int maxEntries) {
+        this.maxSourceSizeInBytes = maxSourceSizeInBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cache shared by all {@link UnitTestGenerator}s which are not configured otherwise
+     */
+    public static ParseCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param file
+     * @return a copy of the parsed file owned by the caller, reparsed if the file changed since it has been cached
+     */
+    public CompilationUnit parse(Path file) {
+        var path = file.toAbsolutePath().normalize();
+        FileTime lastModifiedTime;
+        long size;
+        try {
+            lastModifiedTime = Files.getLastModifiedTime(path);
+            size = Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        synchronized (this) {
+            var entry = entries.get(path);
+            if (entry != null && entry.lastModifiedTime().equals(lastModifiedTime) && entry.size() == size) {
+                hits++;
+                return entry.compilationUnit().clone();
+            }
+            misses++;
+        }
+
+        var compilationUnit = parseFile(path);
+        synchronized (this) {
+            var previous = entries.put(path, new Entry(lastModifiedTime, size, compilationUnit));
+            sourceSizeInBytes += size - (previous == null ? 0 : previous.size());
+            evict();
+        }
+        return compilationUnit.clone();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sourceSizeInBytes = 0;
+    }
+
+    private void evict() {
+        var iterator = entries.entrySet().iterator();
+        while ((sourceSizeInBytes > maxSourceSizeInBytes || entries.size() > maxEntries) && iterator.hasNext()) {
+            Map.Entry<Path, Entry> eldest = iterator.next();
+            sourceSizeInBytes -= eldest.getValue().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Parses a source without caching it, e.g. a file which is about to be edited
+     *
+     * @param source
+     * @return the parsed source
+     */
+    static CompilationUnit parseSource(String source) {
+        var result = PARSER.get().parse(source);
+        if (!result.isSuccessful() || result.getResult().isEmpty()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        return result.getResult().get();
+    }
+
+    private static CompilationUnit parseFile(Path path) {
+        try {
+            var result = PARSER.get().parse(path);
+            if (!result.isSuccessful() || result.getResult().isEmpty()) {
+                throw new ParseProblemException(result.getProblems());
+            }
+            return result.getResult().get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(FileTime lastModifiedTime, long size, CompilationUnit compilationUnit) {
+    }
+}
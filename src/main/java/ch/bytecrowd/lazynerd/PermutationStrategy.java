@@ -0,0 +1,59 @@
+package ch.bytecrowd.lazynerd;
+
+import java.util.stream.Stream;
+
+/**
+ * Selects the combinations of null and non null arguments {@link UnitTestGenerator} generates a test for.
+ * <p>
+ * The strategies of the factory methods have a stable {@link Object#toString()}, which is part of the configuration
+ * fingerprint of {@link UnitTestGenerator#generateIncrementally(java.nio.file.Path)}.
+ */
+@FunctionalInterface
+public interface PermutationStrategy {
+
+    /**
+     * @param parameterCount
+     * @return a lazy stream of combinations, {@code true} at an index for a non null argument of that parameter
+     */
+    Stream<boolean[]> combinations(int parameterCount);
+
+    /**
+     * @return every combination, 2^n for n parameters
+     */
+    static PermutationStrategy exhaustive() {
+        return new CoveringArrays.Strategy("exhaustive", CoveringArrays::exhaustive);
+    }
+
+    /**
+     * @return combinations covering every null/non null pair of any two parameters, growing logarithmically with the parameters
+     */
+    static PermutationStrategy pairwise() {
+        return new CoveringArrays.Strategy("pairwise", CoveringArrays::pairwise);
+    }
+
+    /**
+     * @param strength the number of parameters of which every null/non null combination is covered, from 1 to 6
+     * @return combinations covering every null/non null combination of any {@code strength} parameters,
+     * the combinations of a method with too many parameters for the strength throw an {@link IllegalArgumentException}
+     */
+    static PermutationStrategy nWise(int strength) {
+        if (strength < 1 || strength > CoveringArrays.MAX_STRENGTH) {
+            throw new IllegalArgumentException("strength has to be between 1 and " + CoveringArrays.MAX_STRENGTH + ": " + strength);
+        }
+        return strength == 2
+                ? pairwise()
+                : new CoveringArrays.Strategy("nWise(" + strength + ")", parameterCount -> CoveringArrays.nWise(parameterCount, strength));
+    }
+
+    /**
+     * @param maxCombinations
+     * @return every combination if there are at most {@code maxCombinations}, otherwise the combinations without
+     * and with all arguments followed by a sample which is the same for every run
+     */
+    static PermutationStrategy capped(int maxCombinations) {
+        if (maxCombinations < 1) {
+            throw new IllegalArgumentException("maxCombinations has to be positive: " + maxCombinations);
+        }
+        return new CoveringArrays.Strategy("capped(" + maxCombinations + ")", parameterCount -> CoveringArrays.capped(parameterCount, maxCombinations));
+    }
+}
@@ -0,0 +1,93 @@
+package ch.bytecrowd.lazynerd;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The getters of the properties of a class as {@link MethodHandle}s, resolved once per {@link Class}.
+ * <p>
+ * The properties of a record are its components read through the accessor methods,
+ * the properties of any other class are its declared fields.
+ * Properties which are not accessible (e.g. fields of JDK classes) are left out.
+ */
+final class PropertyAccessors {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<PropertyAccessors> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected PropertyAccessors computeValue(Class<?> type) {
+            return new PropertyAccessors(type);
+        }
+    };
+
+    private final Map<String, MethodHandle> getters;
+
+    private PropertyAccessors(Class<?> type) {
+        var lookup = MethodHandles.lookup();
+        var getters = new HashMap<String, MethodHandle>();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                try {
+                    var accessor = component.getAccessor();
+                    accessor.setAccessible(true);
+                    getters.put(component.getName(), lookup.unreflect(accessor).asType(GETTER_TYPE));
+                } catch (IllegalAccessException | InaccessibleObjectException | SecurityException e) {
+                    // not accessible, the placeholder is resolved by the outer scope or kept as it is
+                }
+            }
+        } else {
+            for (Field field : type.getDeclaredFields()) {
+                try {
+                    field.setAccessible(true);
+                    var getter = lookup.unreflectGetter(field);
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                    }
+                    getters.put(field.getName(), getter.asType(GETTER_TYPE));
+                } catch (IllegalAccessException | InaccessibleObjectException | SecurityException e) {
+                    // not accessible, the placeholder is resolved by the outer scope or kept as it is
+                }
+            }
+        }
+        this.getters = Collections.unmodifiableMap(getters);
+    }
+
+    static PropertyAccessors of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * @param names
+     * @return the getters in the order of the names, {@code null} for the names which are not a property
+     */
+    MethodHandle[] bind(List<String> names) {
+        return names.stream()
+                .map(getters::get)
+                .toArray(MethodHandle[]::new);
+    }
+
+    Object get(Object item, String name) {
+        return invoke(getters.get(name), item);
+    }
+
+    static Object invoke(MethodHandle getter, Object item) {
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (Object) getter.invokeExact(item);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -51,16 +51,11 @@ public final class ReflectionHelper {
     }
 
     public static String getParentPackageName(Class clazz) {
-        var entityPackageName = clazz.getPackageName();
-        var basePackage = entityPackageName.substring(0, entityPackageName.lastIndexOf("."));
-        return entityPackageName.equals(basePackage) ? "" : basePackage;
+        return EntityMetadata.of(clazz).getBasePackage();
     }
 
     public static Optional<Class> getIdType(Class clazz) {
-        return Arrays.stream(clazz.getDeclaredFields())
-                .filter(ReflectionHelper::isAnnotatedWithId)
-                .findFirst()
-                .map(field -> field.getType());
+        return EntityMetadata.of(clazz).getIdType();
     }
 
     public static boolean isAnnotatedWithId(Field field) {
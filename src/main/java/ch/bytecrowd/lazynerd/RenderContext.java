@@ -0,0 +1,26 @@
+package ch.bytecrowd.lazynerd;
+
+import java.util.Map;
+
+/**
+ * The params of a single render, {@link ParamProvider#provideParams()} is evaluated once
+ * and shared by the loop expansion and the placeholder substitution
+ *
+ * @param params
+ * @param verbatim true if the values are rendered as they are, e.g. code of a tested source which may contain
+ *                 placeholders of its own, false if the placeholders of the values are substituted recursively
+ */
+record RenderContext(Map<String, Object> params, boolean verbatim) {
+
+    RenderContext(Map<String, Object> params) {
+        this(params, false);
+    }
+
+    static RenderContext of(ParamProvider paramProvider) {
+        return new RenderContext(paramProvider.provideParams());
+    }
+
+    static RenderContext verbatim(Map<String, Object> params) {
+        return new RenderContext(params, true);
+    }
+}
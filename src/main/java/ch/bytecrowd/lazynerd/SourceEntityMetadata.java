@@ -0,0 +1,487 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.ParamProvider.EntityTypeField;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+import com.github.javaparser.ast.type.WildcardType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The same metadata as {@link EntityMetadata}, built from the source of an entity instead of its loaded class.
+ * <p>
+ * The entity does not have to be compiled, nothing is loaded by a class loader. The type names are resolved
+ * by the imports of the source like the compiler does, on demand imports are looked up in the runtime image
+ * of the platform and in the source tree of the entity. The params only need the resolved types of the id and the
+ * relations, a type of one of them which can not be resolved unambiguously fails with an {@link IllegalArgumentException}.
+ * The types of the other fields, e.g. of a library imported on demand, are kept as written if they can not be resolved.
+ * The params and the fingerprint are equal to the ones of {@link EntityMetadata} for the same entity.
+ */
+public final class SourceEntityMetadata {
+
+    private static final String ID = "javax.persistence.Id";
+    private static final String MANY_TO_ONE = "javax.persistence.ManyToOne";
+    private static final String ONE_TO_MANY = "javax.persistence.OneToMany";
+
+    private static final Set<String> ANNOTATIONS = Set.of(ID, MANY_TO_ONE, ONE_TO_MANY);
+
+    private final Path source;
+    private final String entityTypeCanonicalName;
+    private final List<SourceField> fields;
+    private final List<EntityTypeField> entityTypeFields;
+    private final Map<String, Object> params;
+    private final String fingerprint;
+    private final List<Path> sourceDependencies;
+
+    private SourceEntityMetadata(Path source, CompilationUnit compilationUnit) {
+        this.source = source;
+        var entityType = primaryType(source, compilationUnit);
+        var entityTypeSimpleName = entityType.getNameAsString();
+        var imports = new Imports(source, compilationUnit, entityType);
+        this.entityTypeCanonicalName = imports.packageName().isEmpty()
+                ? entityTypeSimpleName
+                : imports.packageName() + "." + entityTypeSimpleName;
+        this.fields = entityType.getMembers().stream()
+                .filter(FieldDeclaration.class::isInstance)
+                .map(FieldDeclaration.class::cast)
+                .flatMap(field -> field.getVariables().stream()
+                        .map(variable -> SourceField.of(variable.getNameAsString(), variable.getType(), field.getAnnotations(), imports)))
+                .toList();
+        this.entityTypeFields = fields.stream()
+                .map(field -> EntityTypeField.of(
+                        entityTypeSimpleName,
+                        field.name(),
+                        field.typeSimpleName(),
+                        field.genericTypeCanonicalName()
+                ))
+                .toList();
+        var idField = getIdField();
+        this.params = EntityMetadata.params(
+                entityTypeSimpleName,
+                entityTypeCanonicalName,
+                idField.map(SourceField::typeSimpleName).orElse(null),
+                idField.map(SourceField::typeCanonicalName).orElse(null),
+                entityTypeFields
+        );
+        this.fingerprint = EntityMetadata.fingerprint(params);
+        this.sourceDependencies = imports.lookups().stream().sorted().toList();
+    }
+
+    /**
+     * @param source the '.java' file of the entity, parsed through {@link ParseCache#shared()}
+     * @return the metadata of the type named like the file, or of its first type
+     */
+    public static SourceEntityMetadata of(Path source) {
+        return of(source, ParseCache.shared());
+    }
+
+    /**
+     * @param source
+     * @param parseCache
+     * @return the metadata of the type named like the file, or of its first type
+     */
+    public static SourceEntityMetadata of(Path source, ParseCache parseCache) {
+        return new SourceEntityMetadata(source, parseCache.parse(source));
+    }
+
+    /**
+     * Parses the sources in parallel
+     *
+     * @param sources
+     * @return the metadata in the order of the sources
+     */
+    public static List<SourceEntityMetadata> ofAll(Collection<Path> sources) {
+        return sources.parallelStream()
+                .map(SourceEntityMetadata::of)
+                .toList();
+    }
+
+    private static TypeDeclaration<?> primaryType(Path source, CompilationUnit compilationUnit) {
+        var fileName = source.getFileName().toString();
+        var typeName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - ".java".length()) : fileName;
+        return compilationUnit.getTypes().stream()
+                .filter(type -> type.getNameAsString().equals(typeName))
+                .findFirst()
+                .or(() -> compilationUnit.getTypes().stream().findFirst())
+                .orElseThrow(() -> new IllegalArgumentException(source + " does not declare any type"));
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public String getEntityTypeCanonicalName() {
+        return entityTypeCanonicalName;
+    }
+
+    public List<SourceField> getFields() {
+        return fields;
+    }
+
+    public Optional<SourceField> getIdField() {
+        return fields.stream().filter(SourceField::isId).findFirst();
+    }
+
+    public List<EntityTypeField> getEntityTypeFields() {
+        return entityTypeFields;
+    }
+
+    /**
+     * @return the immutable params as provided by {@link ParamProvider#paramsFromEntity(Class)}
+     */
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    /**
+     * @return a hash of the params, equal to {@link EntityMetadata#getFingerprint()} of the same entity
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the package directories and the '.java' files of the source tree which have been looked up to resolve
+     * the types, whether they exist or not, the metadata may change if one of them is added, removed or changed
+     */
+    public List<Path> getSourceDependencies() {
+        return sourceDependencies;
+    }
+
+    /**
+     * @param name
+     * @param typeSimpleName           the simple name of the erased type, e.g. 'List'
+     * @param typeCanonicalName        the resolved name of the erased type, e.g. 'java.util.List', as written if a field
+     *                                 which is neither the id nor a relation can not be resolved
+     * @param genericTypeCanonicalName the resolved name of the first type argument, or an empty string, resolved like the type
+     * @param annotations              the resolved names of the annotations
+     */
+    public record SourceField(
+            String name,
+            String typeSimpleName,
+            String typeCanonicalName,
+            String genericTypeCanonicalName,
+            List<String> annotations
+    ) {
+
+        static SourceField of(String name, Type type, List<AnnotationExpr> annotations, Imports imports) {
+            var annotationNames = annotations.stream()
+                    .map(annotation -> imports.resolveAnnotation(annotation.getNameAsString()))
+                    .toList();
+            UnaryOperator<String> resolver = annotationNames.stream().anyMatch(ANNOTATIONS::contains)
+                    ? imports::resolve
+                    : imports::resolveOrKeep;
+            var genericTypeCanonicalName = type instanceof ClassOrInterfaceType classType
+                    ? classType.getTypeArguments()
+                    .filter(arguments -> !arguments.isEmpty())
+                    .map(arguments -> typeArgumentName(arguments.get(0), resolver))
+                    .orElse("")
+                    : "";
+            return new SourceField(
+                    name,
+                    simpleName(type),
+                    canonicalName(type, resolver),
+                    genericTypeCanonicalName,
+                    annotationNames
+            );
+        }
+
+        public boolean isAnnotatedWith(String annotationCanonicalName) {
+            return annotations.contains(annotationCanonicalName);
+        }
+
+        public boolean isId() {
+            return isAnnotatedWith(ID);
+        }
+
+        public boolean isManyToOne() {
+            return isAnnotatedWith(MANY_TO_ONE);
+        }
+
+        public boolean isOneToMany() {
+            return isAnnotatedWith(ONE_TO_MANY);
+        }
+
+        private static String simpleName(Type type) {
+            if (type instanceof ArrayType arrayType) {
+                return simpleName(arrayType.getComponentType()) + "[]";
+            }
+            if (type instanceof ClassOrInterfaceType classType) {
+                return classType.getNameAsString();
+            }
+            return type.asString();
+        }
+
+        private static String canonicalName(Type type, UnaryOperator<String> resolver) {
+            if (type instanceof ArrayType arrayType) {
+                return canonicalName(arrayType.getComponentType(), resolver) + "[]";
+            }
+            if (type instanceof ClassOrInterfaceType classType) {
+                return resolver.apply(classType.getNameWithScope());
+            }
+            return type.asString();
+        }
+
+        /**
+         * @return the name like {@link java.lang.reflect.Type#getTypeName()} of the type argument
+         */
+        private static String typeArgumentName(Type type, UnaryOperator<String> resolver) {
+            if (type instanceof ClassOrInterfaceType classType) {
+                return resolver.apply(classType.getNameWithScope()) + classType.getTypeArguments()
+                        .map(arguments -> arguments.stream()
+                                .map(argument -> typeArgumentName(argument, resolver))
+                                .toList())
+                        .map(names -> "<" + String.join(", ", names) + ">")
+                        .orElse("");
+            }
+            if (type instanceof ArrayType arrayType) {
+                return typeArgumentName(arrayType.getComponentType(), resolver) + "[]";
+            }
+            if (type instanceof WildcardType wildcardType) {
+                return wildcardType.getExtendedType().map(bound -> "? extends " + typeArgumentName(bound, resolver))
+                        .or(() -> wildcardType.getSuperType().map(bound -> "? super " + typeArgumentName(bound, resolver)))
+                        .orElse("?");
+            }
+            return type.asString();
+        }
+    }
+
+    /**
+     * Resolves the names written in the source to binary names like {@link Class#getName()}, e.g. 'java.util.Map$Entry'.
+     * <p>
+     * In the order of the Java language: type parameters, the types declared in the source, single type imports,
+     * the package of the entity and finally the on demand imports including {@code java.lang}. Whether an on demand
+     * imported package contains a type is looked up in the runtime image of the platform or in the source tree
+     * of the entity, nothing is loaded.
+     */
+    private static final class Imports {
+
+        private static final FileSystem PLATFORM = FileSystems.getFileSystem(URI.create("jrt:/"));
+        private static final Map<String, Boolean> PLATFORM_TYPES = new ConcurrentHashMap<>();
+
+        private final String packageName;
+        private final Path sourceRoot;
+        private final Set<String> typeParameters;
+        private final Map<String, String> declaredTypes = new HashMap<>();
+        private final Map<String, String> singleTypeImports;
+        private final List<String> onDemandImports;
+        private final Set<Path> lookups = new HashSet<>();
+
+        /**
+         * @param source          the file of the compilation unit
+         * @param compilationUnit
+         * @param entityType
+         */
+        Imports(Path source, CompilationUnit compilationUnit, TypeDeclaration<?> entityType) {
+            this.packageName = compilationUnit.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+            this.sourceRoot = sourceRoot(source, packageName);
+            this.typeParameters = entityType instanceof ClassOrInterfaceDeclaration declaration
+                    ? declaration.getTypeParameters().stream().map(TypeParameter::getNameAsString).collect(Collectors.toSet())
+                    : Set.of();
+            compilationUnit.getTypes().forEach(type -> declare(type, packageName.isEmpty() ? "" : packageName + "."));
+            this.singleTypeImports = compilationUnit.getImports().stream()
+                    .filter(declaration -> !declaration.isAsterisk() && !declaration.isStatic())
+                    .map(ImportDeclaration::getNameAsString)
+                    .collect(Collectors.toMap(
+                            name -> name.substring(name.lastIndexOf(".") + 1),
+                            Imports::binaryName,
+                            (first, second) -> first
+                    ));
+            this.onDemandImports = Stream.concat(
+                            compilationUnit.getImports().stream()
+                                    .filter(declaration -> declaration.isAsterisk() && !declaration.isStatic())
+                                    .map(ImportDeclaration::getNameAsString),
+                            Stream.of("java.lang")
+                    )
+                    .distinct()
+                    .toList();
+        }
+
+        String packageName() {
+            return packageName;
+        }
+
+        /**
+         * @return the directories and files of the source tree looked up so far
+         */
+        Set<Path> lookups() {
+            return lookups;
+        }
+
+        /**
+         * Only the persistence annotations are resolved by on demand imports which are neither part of the platform
+         * nor of the source tree, other annotations which can not be resolved keep the name as written
+         */
+        String resolveAnnotation(String name) {
+            if (!name.contains(".") && !singleTypeImports.containsKey(name) && !declaredTypes.containsKey(name)) {
+                var annotation = onDemandImports.stream()
+                        .map(onDemandImport -> onDemandImport + "." + name)
+                        .filter(ANNOTATIONS::contains)
+                        .findFirst();
+                if (annotation.isPresent()) {
+                    return annotation.get();
+                }
+            }
+            return resolveOrKeep(name);
+        }
+
+        /**
+         * @return the binary name, or the name as written if it can not be resolved unambiguously
+         */
+        String resolveOrKeep(String name) {
+            try {
+                return resolve(name);
+            } catch (IllegalArgumentException e) {
+                return name;
+            }
+        }
+
+        /**
+         * @param name a simple or qualified name as written in the source
+         * @return the binary name
+         * @throws IllegalArgumentException if the name may be imported by an on demand import which can not be looked up,
+         *                                  or by more than one on demand import
+         */
+        String resolve(String name) {
+            var dot = name.indexOf(".");
+            var first = dot < 0 ? name : name.substring(0, dot);
+            var nested = dot < 0 ? "" : "$" + name.substring(dot + 1).replace('.', '$');
+            if (dot >= 0 && Character.isLowerCase(first.charAt(0))) {
+                return binaryName(name);
+            }
+            if (typeParameters.contains(first)) {
+                return name;
+            }
+            var declared = declaredTypes.getOrDefault(first, singleTypeImports.get(first));
+            if (declared != null) {
+                return declared + nested;
+            }
+            if (containsType(packageName, first) == Boolean.TRUE) {
+                return qualified(packageName, first) + nested;
+            }
+
+            var candidates = onDemandImports.stream()
+                    .filter(onDemandImport -> containsType(onDemandImport, first) == Boolean.TRUE)
+                    .toList();
+            if (candidates.size() > 1) {
+                throw new IllegalArgumentException(first + " is ambiguous, it is imported by " + String.join(", ", candidates));
+            }
+            if (candidates.size() == 1) {
+                return candidates.get(0) + "." + first + nested;
+            }
+            var unknown = onDemandImports.stream()
+                    .filter(onDemandImport -> containsType(onDemandImport, first) == null)
+                    .toList();
+            if (!unknown.isEmpty()) {
+                throw new IllegalArgumentException(first + " can not be resolved, it may be imported by " + String.join(", ", unknown));
+            }
+            return qualified(packageName, first) + nested;
+        }
+
+        private void declare(TypeDeclaration<?> type, String prefix) {
+            var binaryName = prefix + type.getNameAsString();
+            declaredTypes.putIfAbsent(type.getNameAsString(), binaryName);
+            type.getMembers().stream()
+                    .filter(TypeDeclaration.class::isInstance)
+                    .map(member -> (TypeDeclaration<?>) member)
+                    .forEach(member -> declare(member, binaryName + "$"));
+        }
+
+        /**
+         * @return whether the package contains the type, {@code null} if the package can not be looked up
+         */
+        private Boolean containsType(String packageName, String simpleName) {
+            if (isPlatformPackage(packageName)) {
+                return PLATFORM_TYPES.computeIfAbsent(qualified(packageName, simpleName), name -> isPlatformType(packageName, simpleName));
+            }
+            if (sourceRoot != null) {
+                var packageDirectory = sourceRoot.resolve(packageName.replace('.', '/'));
+                lookups.add(packageDirectory);
+                if (Files.isDirectory(packageDirectory) || packageName.equals(this.packageName)) {
+                    var sourceFile = packageDirectory.resolve(simpleName + ".java");
+                    lookups.add(sourceFile);
+                    return Files.isRegularFile(sourceFile);
+                }
+            }
+            return null;
+        }
+
+        private static boolean isPlatformPackage(String packageName) {
+            return !packageName.isEmpty() && Files.isDirectory(PLATFORM.getPath("/packages", packageName));
+        }
+
+        private static boolean isPlatformType(String packageName, String simpleName) {
+            try (Stream<Path> modules = Files.list(PLATFORM.getPath("/packages", packageName))) {
+                var classFile = packageName.replace('.', '/') + "/" + simpleName + ".class";
+                return modules.anyMatch(module -> Files.exists(PLATFORM.getPath("/modules", module.getFileName().toString(), classFile)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the directory of the default package, {@code null} if the source is not located in the directory of its package
+         */
+        private static Path sourceRoot(Path source, String packageName) {
+            var directory = source.toAbsolutePath().normalize().getParent();
+            if (packageName.isEmpty()) {
+                return directory;
+            }
+            var segments = packageName.split("\\.");
+            for (var i = segments.length - 1; i >= 0; i--) {
+                if (directory == null || directory.getFileName() == null || !directory.getFileName().toString().equals(segments[i])) {
+                    return null;
+                }
+                directory = directory.getParent();
+            }
+            return directory;
+        }
+
+        /**
+         * @return the name with '$' between nested types, the package is expected in lower case as by convention
+         */
+        private static String binaryName(String qualifiedName) {
+            var segments = qualifiedName.split("\\.");
+            var builder = new StringBuilder();
+            var inType = false;
+            for (var segment : segments) {
+                if (!builder.isEmpty()) {
+                    builder.append(inType ? '$' : '.');
+                }
+                builder.append(segment);
+                inType = inType || Character.isUpperCase(segment.charAt(0));
+            }
+            return builder.toString();
+        }
+
+        private static String qualified(String packageName, String simpleName) {
+            return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        }
+    }
+}
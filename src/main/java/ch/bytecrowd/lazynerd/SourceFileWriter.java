@@ -0,0 +1,149 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Writes generated sources, the target is replaced atomically through a temporary file in the same directory
+ */
+public final class SourceFileWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Set<PosixFilePermission> NEW_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    public enum Mode {
+        /**
+         * the file is always rewritten
+         */
+        ALWAYS,
+        /**
+         * the file is only rewritten if its content differs, so its mtime is kept for incremental builds
+         */
+        IF_CHANGED
+    }
+
+    public enum Result {
+        CREATED,
+        WRITTEN,
+        UNCHANGED
+    }
+
+    /**
+     * Content which is streamed into the file instead of being materialized
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    private SourceFileWriter() {
+
+    }
+
+    /**
+     * @param path
+     * @param content
+     * @param mode
+     * @return whether the file was created, written or left unchanged
+     * @throws IOException
+     */
+    public static Result write(Path path, String content, Mode mode) throws IOException {
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        var exists = Files.exists(path);
+        if (exists && mode == Mode.IF_CHANGED && hasContent(path, bytes)) {
+            return Result.UNCHANGED;
+        }
+        var tempFile = createTempFile(path, exists);
+        try {
+            Files.write(tempFile, bytes);
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return exists ? Result.WRITTEN : Result.CREATED;
+    }
+
+    /**
+     * Streams the content into a temporary file which replaces the target, or which is discarded
+     * in {@link Mode#IF_CHANGED} if the target has the same content
+     *
+     * @param path
+     * @param content
+     * @param mode
+     * @return whether the file was created, written or left unchanged
+     * @throws IOException
+     */
+    public static Result write(Path path, Content content, Mode mode) throws IOException {
+        var exists = Files.exists(path);
+        var tempFile = createTempFile(path, exists);
+        try {
+            try (var out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                content.writeTo(out);
+            }
+            if (exists && mode == Mode.IF_CHANGED && Files.mismatch(tempFile, path) == -1) {
+                return Result.UNCHANGED;
+            }
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return exists ? Result.WRITTEN : Result.CREATED;
+    }
+
+    /**
+     * Creates the temporary file next to the target, with the permissions of the target if it exists
+     * or 'rw-r--r--' for a new file, the owner only permissions of a temporary file would replace them otherwise
+     */
+    private static Path createTempFile(Path path, boolean exists) throws IOException {
+        var directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var tempFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        if (Files.getFileAttributeView(tempFile, PosixFileAttributeView.class) != null) {
+            try {
+                Files.setPosixFilePermissions(tempFile, exists ? Files.getPosixFilePermissions(path) : NEW_FILE_PERMISSIONS);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+        }
+        return tempFile;
+    }
+
+    static boolean hasContent(Path path, byte[] bytes) throws IOException {
+        if (Files.size(path) != bytes.length) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            var buffer = new byte[BUFFER_SIZE];
+            var offset = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (offset + read > bytes.length
+                        || !Arrays.equals(buffer, 0, read, bytes, offset, offset + read)) {
+                    return false;
+                }
+                offset += read;
+            }
+            return offset == bytes.length;
+        }
+    }
+}
@@ -3,39 +3,218 @@ package ch.bytecrowd.lazynerd;
 import org.apache.commons.text.StringSubstitutor;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class TemplateFiller {
 
+    /**
+     * the most compiled templates kept for the renderings of template strings
+     */
+    static final int MAX_COMPILED_TEMPLATES = 64;
+
+    /**
+     * by the template text, the least recently used ones are evicted first
+     */
+    private static final Map<String, CompiledTemplate> COMPILED_TEMPLATES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+            return size() > MAX_COMPILED_TEMPLATES;
+        }
+    };
+
+    private final GenerationCache cache;
+
+    public TemplateFiller() {
+        this(null);
+    }
+
+    /**
+     * @param cache used by {@link #generateAll} to skip the rendering of unchanged entity/template pairs
+     */
+    public TemplateFiller(GenerationCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * @param template
      * @param paramProvider
      * @return
      */
     public String fillUpTemplate(String template, ParamProvider paramProvider) {
-        var templateWithFilledLoops = LoopFiller.fillUpLoops(template, paramProvider);
+        var context = RenderContext.of(paramProvider);
+        var templateWithFilledLoops = LoopFiller.fillUpLoops(template, context);
         return StringSubstitutor.replace(
-                templateWithFilledLoops, paramProvider.provideParams()
+                templateWithFilledLoops, context.params()
         );
     }
 
     /**
+     * Streams the filled up template into the given {@link Appendable}, e.g. a {@link java.io.Writer} of a file,
+     * without materializing the output or any intermediate copy of the template.
+     * The {@link Appendable} is neither flushed nor closed. The output is the same as the one of
+     * {@link #fillUpTemplate(String, ParamProvider)}, see {@link CompiledTemplate}.
+     * <p>
+     * The template is compiled by {@link #compile(String)}.
+     *
+     * @param template
+     * @param paramProvider
+     * @param out
+     * @throws IOException
+     */
+    public void fillUpTemplate(String template, ParamProvider paramProvider, Appendable out) throws IOException {
+        fillUpTemplate(compile(template), paramProvider, out);
+    }
+
+    /**
+     * Same as {@link #fillUpTemplate(String, ParamProvider, Appendable)} with a template which has been compiled once
+     *
+     * @param template      e.g. compiled by {@link #compile(String)}
+     * @param paramProvider
+     * @param out
+     * @throws IOException
+     */
+    public void fillUpTemplate(CompiledTemplate template, ParamProvider paramProvider, Appendable out) throws IOException {
+        template.render(paramProvider, out);
+    }
+
+    /**
+     * Parses the template once, the returned {@link CompiledTemplate} can be rendered for any number of entities.
+     * The last {@value #MAX_COMPILED_TEMPLATES} compiled templates are reused, so are the getters bound by their loops.
+     *
+     * @param template
+     * @return
+     */
+    public CompiledTemplate compile(String template) {
+        return compiled(template);
+    }
+
+    static CompiledTemplate compiled(String template) {
+        synchronized (COMPILED_TEMPLATES) {
+            var compiled = COMPILED_TEMPLATES.get(template);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        // compiled outside of the lock, a template compiled by two threads at once is kept once
+        var compiled = CompiledTemplate.compile(template);
+        synchronized (COMPILED_TEMPLATES) {
+            return COMPILED_TEMPLATES.computeIfAbsent(template, key -> compiled);
+        }
+    }
+
+    /**
+     * Same as {@link #fillUpTemplateAndWriteToFile(String, String, ParamProvider, SourceFileWriter.Mode)}
+     * with {@link SourceFileWriter.Mode#IF_CHANGED}
+     *
      * @param sourceBasePath 'src/main/java' or 'src/test/java'
      * @param template
      * @param paramProvider
+     * @return whether the file was created, written or left unchanged
      * @throws IOException
      */
-    public void fillUpTemplateAndWriteToFile(
+    public SourceFileWriter.Result fillUpTemplateAndWriteToFile(
             String sourceBasePath,
             String template,
             ParamProvider paramProvider
+    ) throws IOException {
+        return fillUpTemplateAndWriteToFile(sourceBasePath, template, paramProvider, SourceFileWriter.Mode.IF_CHANGED);
+    }
+
+    /**
+     * @param sourceBasePath 'src/main/java' or 'src/test/java'
+     * @param template
+     * @param paramProvider
+     * @param mode
+     * @return whether the file was created, written or left unchanged
+     * @throws IOException
+     */
+    public SourceFileWriter.Result fillUpTemplateAndWriteToFile(
+            String sourceBasePath,
+            String template,
+            ParamProvider paramProvider,
+            SourceFileWriter.Mode mode
     ) throws IOException {
         String generated = fillUpTemplate(template, paramProvider);
+        return writeSourceFile(sourceBasePath, generated, mode).result();
+    }
+
+    /**
+     * Generates every template for every entity and writes the sources to the output root.
+     * The templates are compiled once, the entity/template pairs are rendered and written on the executor.
+     * A failing pair does not abort the run, its failure is collected in the returned summary.
+     * Files whose content did not change are not rewritten, with a {@link GenerationCache} the pairs
+     * which have been generated by a previous build are not even rendered.
+     *
+     * @param entities
+     * @param templates
+     * @param outputRoot 'src/main/java' or 'src/test/java'
+     * @param executor   e.g. a {@link ForkJoinPool}
+     * @return the generated files and the failures in the order of the entities and templates
+     */
+    public GenerationSummary generateAll(
+            Collection<Class<?>> entities,
+            Collection<String> templates,
+            Path outputRoot,
+            Executor executor
+    ) {
+        var compiledTemplates = templates.stream()
+                .map(template -> CompletableFuture.supplyAsync(() -> compile(template), executor))
+                .toList();
+
+        var tasks = new ArrayList<GenerationTask>();
+        for (var entity : entities) {
+            var templateIterator = templates.iterator();
+            for (var compiledTemplate : compiledTemplates) {
+                var future = compiledTemplate.thenApplyAsync(compiled -> {
+                    var generated = cache == null
+                            ? compiled.render(() -> ParamProvider.paramsFromEntity(entity))
+                            : cache.render(compiled, entity);
+                    try {
+                        return writeSourceFile(outputRoot.toString(), generated, SourceFileWriter.Mode.IF_CHANGED);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+                tasks.add(new GenerationTask(entity, templateIterator.next(), future));
+            }
+        }
+
+        var generatedFiles = new ArrayList<GenerationSummary.GeneratedFile>();
+        var failures = new ArrayList<GenerationSummary.Failure>();
+        for (var task : tasks) {
+            try {
+                generatedFiles.add(task.future().join());
+            } catch (CompletionException e) {
+                failures.add(new GenerationSummary.Failure(task.entity(), task.template(), e.getCause()));
+            }
+        }
+        return new GenerationSummary(generatedFiles, failures);
+    }
+
+    private record GenerationTask(Class<?> entity, String template, CompletableFuture<GenerationSummary.GeneratedFile> future) {
+    }
+
+    /**
+     * Same as {@link #generateAll(Collection, Collection, Path, Executor)} on the {@link ForkJoinPool#commonPool()}
+     */
+    public GenerationSummary generateAll(
+            Collection<Class<?>> entities,
+            Collection<String> templates,
+            Path outputRoot
+    ) {
+        return generateAll(entities, templates, outputRoot, ForkJoinPool.commonPool());
+    }
 
+    static GenerationSummary.GeneratedFile writeSourceFile(String sourceBasePath, String generated, SourceFileWriter.Mode mode) throws IOException {
         String sourceFileName = generated.split("(class|interface) ")[1].split("\s+")[0];
 
 
@@ -47,71 +226,24 @@ public class TemplateFiller {
                 .orElse("");
 
         var path = Path.of(sourceBasePath + "/" + sourceFilePath);
-        path.getParent().toFile().mkdirs();
-        Files.writeString(
-                path,
-                generated,
-                StandardOpenOption.WRITE, StandardOpenOption.CREATE
-        );
+        return new GenerationSummary.GeneratedFile(path, SourceFileWriter.write(path, generated, mode));
     }
 }
 
 class LoopFiller {
-    static String fillUpLoops(String template, ParamProvider paramProvider) {
-        while (template.indexOf("#forEach") > -1) {
-            var startIndex = template.indexOf("#forEach");
-            var endIndex = template.indexOf("#end");
-            var forLoop = template.substring(startIndex, endIndex + 4);
-
-            if (forLoop.lastIndexOf("#forEach") != 0) {
-                throw new IllegalArgumentException("nested loops are not supported: \n" + forLoop);
-            }
 
-            var key = extractKeyInLoop(forLoop);
-            if (paramProvider.provideParams().get(key) instanceof Collection<?> collection) {
-                if (collection.size() > 0) {
-                    var stripedLoopTemplate = stripLoopAndEnd(forLoop, key);
-                    var clazz = collection.iterator().next().getClass();
-                    var builder = fillLoopTemplate(collection, stripedLoopTemplate, clazz);
-                    template = mergeToMainTemplate(template, builder);
-                } else {
-                    template = template.replace(forLoop, "");
-                }
-            } else {
-                if (paramProvider.provideParams().get(key) == null) {
-                    throw new IllegalArgumentException("#forEach(" + key + ") is null:\n" + forLoop);
-                }
-                throw new IllegalArgumentException("#forEach(" + key + ") has to be an instance of collection:\n" + forLoop);
-            }
+    /**
+     * Expands all (nested) loops in a single pass over the template, the placeholders outside the loops
+     * and the ones which are not resolved by a loop item are kept for the substitution of the params
+     *
+     * @param template
+     * @param context
+     * @return the template with expanded loops
+     */
+    static String fillUpLoops(String template, RenderContext context) {
+        if (!template.contains("#forEach")) {
+            return template;
         }
-        return template;
-    }
-
-    static private String extractKeyInLoop(String forLoop) {
-        return forLoop.replaceAll("\\s", " ").replaceFirst(".*#forEach\\((((?!\\)).)+)\\).*", "$1");
-    }
-
-    static private String stripLoopAndEnd(String forLoop, String key) {
-        return forLoop.replaceFirst("#forEach\\(" + key + "\\)\s*\n?", "")
-                .replaceFirst("#end\s*\n?", "");
+        return TemplateFiller.compiled(template).renderLoops(context);
     }
-
-    static private StringBuilder fillLoopTemplate(Collection<?> collection, String loopTemplate, Class<?> clazz) {
-        var fieldsMap = ReflectionHelper.getFieldsMap(clazz);
-        var builder = new StringBuilder();
-        collection.forEach(o -> {
-            var valueMap = new HashMap<String, Object>();
-            fieldsMap.forEach((fieldName, valueExtractor) -> {
-                valueMap.put(fieldName, valueExtractor.apply(o));
-            });
-            builder.append(
-                    StringSubstitutor.replace(loopTemplate, valueMap)
-            );
-        });
-        return builder;
-    }
-
-    static private String mergeToMainTemplate(String template, StringBuilder builder) {
-        return template.replaceFirst("#forEach(((?!#end).|\n))*#end\s*\n?", builder.toString());
-    }
-}
\ No newline at end of file
+}
@@ -1,5 +1,8 @@
 package ch.bytecrowd.lazynerd;
 
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+
 public class Templates {
 
     public static final String GETTER_SETTER_EQUALS_AND_HASH_CODE = """
@@ -540,4 +543,22 @@ public class Templates {
                 }
             }
             """;
+
+    /**
+     * @param name e.g. 'QUARKUS_REPOSITORY'
+     * @return the template of the constant with the given name, empty if there is no such constant
+     */
+    public static Optional<String> named(String name) {
+        try {
+            var field = Templates.class.getField(name);
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                return Optional.of((String) field.get(null));
+            }
+            return Optional.empty();
+        } catch (NoSuchFieldException e) {
+            return Optional.empty();
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
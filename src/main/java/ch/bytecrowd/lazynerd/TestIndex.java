@@ -0,0 +1,99 @@
+package ch.bytecrowd.lazynerd;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The sidecar of a generated test class, maps the signature of every tested method to the hash of its declaration
+ * and to the names of the test methods generated for it.
+ * <p>
+ * The first line holds the format version and the hash of the generator configuration and the class header,
+ * every other line is an entry of tab separated values.
+ */
+final class TestIndex {
+
+    private static final String FORMAT = "#lazy-nerd-test-index-1";
+    private static final String SUFFIX = ".lazy-nerd-index";
+
+    private final String headerHash;
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param signature e.g. 'wierdMethod(int, Point)'
+     * @param hash      the hash of the method declaration
+     * @param testNames the names of the generated test methods, including the argument sources of parameterized tests
+     */
+    record Entry(String signature, String hash, List<String> testNames) {
+    }
+
+    TestIndex(String headerHash, List<Entry> entries) {
+        this.headerHash = headerHash;
+        this.entries = new LinkedHashMap<>();
+        entries.forEach(entry -> this.entries.put(entry.signature(), entry));
+    }
+
+    /**
+     * @param testFile
+     * @return the index next to the test file, e.g. 'FooTest.java.lazy-nerd-index'
+     */
+    static Path pathOf(Path testFile) {
+        return testFile.resolveSibling(testFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @param path
+     * @return the index, empty if it does not exist or has another format
+     * @throws IOException
+     */
+    static Optional<TestIndex> read(Path path) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        if (lines.isEmpty() || !lines.get(0).startsWith(FORMAT + "\t")) {
+            return Optional.empty();
+        }
+        var entries = new ArrayList<Entry>();
+        for (var line : lines.subList(1, lines.size())) {
+            var values = line.split("\t", -1);
+            if (values.length != 3) {
+                return Optional.empty();
+            }
+            var testNames = values[2].isEmpty() ? List.<String>of() : Arrays.asList(values[2].split(","));
+            entries.add(new Entry(values[0], values[1], testNames));
+        }
+        return Optional.of(new TestIndex(lines.get(0).substring(FORMAT.length() + 1), entries));
+    }
+
+    void write(Path path) throws IOException {
+        var builder = new StringBuilder(FORMAT).append('\t').append(headerHash).append('\n');
+        for (var entry : entries.values()) {
+            builder.append(entry.signature()).append('\t')
+                    .append(entry.hash()).append('\t')
+                    .append(String.join(",", entry.testNames())).append('\n');
+        }
+        SourceFileWriter.write(path, builder.toString(), SourceFileWriter.Mode.IF_CHANGED);
+    }
+
+    String getHeaderHash() {
+        return headerHash;
+    }
+
+    Optional<Entry> get(String signature) {
+        return Optional.ofNullable(entries.get(signature));
+    }
+
+    List<Entry> getEntries() {
+        return List.copyOf(entries.values());
+    }
+}
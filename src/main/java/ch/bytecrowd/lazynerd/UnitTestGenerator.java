@@ -1,36 +1,98 @@
 package ch.bytecrowd.lazynerd;
 
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.expr.ConditionalExpr;
 import com.github.javaparser.ast.stmt.IfStmt;
 import com.github.javaparser.ast.stmt.SwitchStmt;
-import com.github.javaparser.ast.type.ClassOrInterfaceType;
-import com.github.javaparser.ast.type.PrimitiveType;
+import com.github.javaparser.ast.type.ArrayType;
 import com.github.javaparser.ast.type.Type;
-import com.github.javaparser.utils.SourceRoot;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class UnitTestGenerator {
+
+    /**
+     * The skeleton of a test method, with the placeholders 'testName', 'branches' (comment lines of the covered branches),
+     * 'arguments' (the GIVEN lines), 'invocation', 'mocks' (comma separated) and 'verification'
+     */
+    public static final String DEFAULT_TEST_METHOD_TEMPLATE = """
+                @Test
+            ${branches}    void ${testName}() {
+                    // GIVEN
+            ${arguments}
+
+                    // WHEN
+            ${invocation}
+
+                    // THEN
+                    assertThat(actual).isNotNull();
+            ${verification}    }
+
+            """;
+
+    /**
+     * The skeleton of a parameterized test method, with the placeholders of {@link #DEFAULT_TEST_METHOD_TEMPLATE}
+     * and 'parameters', 'argumentsSource' and 'argumentRows'
+     */
+    public static final String DEFAULT_PARAMETERIZED_TEST_METHOD_TEMPLATE = """
+                @ParameterizedTest
+                @MethodSource("${argumentsSource}")
+            ${branches}    void ${testName}(${parameters}) {
+                    // WHEN
+            ${invocation}
+
+                    // THEN
+                    assertThat(actual).isNotNull();
+            ${verification}    }
+
+                static Stream<Arguments> ${argumentsSource}() {
+                    return Stream.of(
+            ${argumentRows}
+                    );
+                }
+
+            """;
+
     private final Class clazz;
     private final String methodRegex;
+    private final String typeRegex;
     private final String sourcePath;
     private final boolean generateTestsForIfStatements;
+    private final boolean generateParameterizedTests;
+    private final boolean signaturesFromClass;
+    private final ParseCache parseCache;
+    private final PermutationStrategy permutationStrategy;
+    private final CompiledTemplate testMethodTemplate;
+    private final CompiledTemplate parameterizedTestMethodTemplate;
 
     public static class Builder {
         private Class clazz;
         private String methodRegex = "^.+";
+        private String typeRegex = "^.+";
         private String sourcePath = "src/main/java";
         private boolean generateTestsForIfStatements = true;
+        private boolean generateParameterizedTests = false;
+        private boolean signaturesFromClass = false;
+        private ParseCache parseCache = ParseCache.shared();
+        private PermutationStrategy permutationStrategy = PermutationStrategy.exhaustive();
+        private String testMethodTemplate = DEFAULT_TEST_METHOD_TEMPLATE;
+        private String parameterizedTestMethodTemplate = DEFAULT_PARAMETERIZED_TEST_METHOD_TEMPLATE;
 
         public Builder clazz(Class clazz) {
             this.clazz = clazz;
@@ -42,6 +104,14 @@ public final class UnitTestGenerator {
             return this;
         }
 
+        /**
+         * @param typeRegex matched against the fully qualified names of the types selected by {@link #generateAll()}
+         */
+        public Builder typeRegex(String typeRegex) {
+            this.typeRegex = typeRegex;
+            return this;
+        }
+
         public Builder sourcePath(String sourcePath) {
             this.sourcePath = sourcePath;
             return this;
@@ -52,33 +122,545 @@ public final class UnitTestGenerator {
             return this;
         }
 
+        /**
+         * @param generateParameterizedTests true to test the argument permutations of a method by a single {@code @ParameterizedTest}
+         *                                   with an {@code @MethodSource}, the generated tests require 'junit-jupiter-params'
+         */
+        public Builder generateParameterizedTests(boolean generateParameterizedTests) {
+            this.generateParameterizedTests = generateParameterizedTests;
+            return this;
+        }
+
+        /**
+         * @param signaturesFromClass true to read the constructors and methods of the class by reflection instead of parsing its source,
+         *                            only used if no tests for the branches are generated. The parameter names are only known
+         *                            if the class was compiled with '-parameters', otherwise they are 'arg0', 'arg1' and so on
+         */
+        public Builder signaturesFromClass(boolean signaturesFromClass) {
+            this.signaturesFromClass = signaturesFromClass;
+            return this;
+        }
+
+        /**
+         * @param parseCache defaults to {@link ParseCache#shared()}
+         */
+        public Builder parseCache(ParseCache parseCache) {
+            this.parseCache = parseCache;
+            return this;
+        }
+
+        /**
+         * @param permutationStrategy selects the null/non null arguments tested for every method, defaults to {@link PermutationStrategy#exhaustive()}
+         */
+        public Builder permutationStrategy(PermutationStrategy permutationStrategy) {
+            this.permutationStrategy = permutationStrategy;
+            return this;
+        }
+
+        /**
+         * @param testMethodTemplate the skeleton of every test method, compiled once by {@link #build()},
+         *                           defaults to {@link #DEFAULT_TEST_METHOD_TEMPLATE}
+         */
+        public Builder testMethodTemplate(String testMethodTemplate) {
+            this.testMethodTemplate = testMethodTemplate;
+            return this;
+        }
+
+        /**
+         * @param parameterizedTestMethodTemplate the skeleton of the parameterized test methods, compiled once by {@link #build()},
+         *                                        defaults to {@link #DEFAULT_PARAMETERIZED_TEST_METHOD_TEMPLATE}
+         */
+        public Builder parameterizedTestMethodTemplate(String parameterizedTestMethodTemplate) {
+            this.parameterizedTestMethodTemplate = parameterizedTestMethodTemplate;
+            return this;
+        }
+
+        /**
+         * @return a generator for the {@link #clazz(Class)}, or for all types of the {@link #sourcePath(String)}
+         * matching the {@link #typeRegex(String)} if no class is set
+         */
         public UnitTestGenerator build() {
-            if (clazz == null) {
-                throw new IllegalArgumentException("clazz can not be null");
+            if (parseCache == null) {
+                throw new IllegalArgumentException("parseCache can not be null");
+            }
+            if (permutationStrategy == null) {
+                throw new IllegalArgumentException("permutationStrategy can not be null");
+            }
+            if (testMethodTemplate == null || parameterizedTestMethodTemplate == null) {
+                throw new IllegalArgumentException("test method templates can not be null");
             }
-            return new UnitTestGenerator(clazz, methodRegex, sourcePath, generateTestsForIfStatements);
+            var templateFiller = new TemplateFiller();
+            return new UnitTestGenerator(
+                    clazz,
+                    methodRegex,
+                    typeRegex,
+                    sourcePath,
+                    generateTestsForIfStatements,
+                    generateParameterizedTests,
+                    signaturesFromClass,
+                    parseCache,
+                    permutationStrategy,
+                    templateFiller.compile(testMethodTemplate),
+                    templateFiller.compile(parameterizedTestMethodTemplate)
+            );
+        }
+    }
+
+    /**
+     * A generated test class
+     *
+     * @param packageName the package of the tested type, empty for the default package
+     * @param className   the simple name of the test class
+     * @param source
+     */
+    public record GeneratedTest(String packageName, String className, String source) {
+
+        /**
+         * @return the path of the test class relative to a source root, e.g. 'ch/bytecrowd/FooTest.java'
+         */
+        public Path relativePath() {
+            return relativePath(packageName, className);
+        }
+
+        static Path relativePath(String packageName, String className) {
+            var fileName = className + ".java";
+            return packageName.isEmpty()
+                    ? Path.of(fileName)
+                    : Path.of(packageName.replace('.', '/'), fileName);
         }
     }
 
-    private UnitTestGenerator(Class clazz, String methodRegex, String sourcePath, boolean generateTestsForIfStatements) {
+    private UnitTestGenerator(Class clazz, String methodRegex, String typeRegex, String sourcePath, boolean generateTestsForIfStatements, boolean generateParameterizedTests, boolean signaturesFromClass, ParseCache parseCache, PermutationStrategy permutationStrategy, CompiledTemplate testMethodTemplate, CompiledTemplate parameterizedTestMethodTemplate) {
         this.clazz = clazz;
         this.methodRegex = methodRegex;
+        this.typeRegex = typeRegex;
         this.sourcePath = sourcePath;
         this.generateTestsForIfStatements = generateTestsForIfStatements;
+        this.generateParameterizedTests = generateParameterizedTests;
+        this.signaturesFromClass = signaturesFromClass;
+        this.parseCache = parseCache;
+        this.permutationStrategy = permutationStrategy;
+        this.testMethodTemplate = testMethodTemplate;
+        this.parameterizedTestMethodTemplate = parameterizedTestMethodTemplate;
     }
 
     public String generate() {
-        var sourceRoot = new SourceRoot(Paths.get(sourcePath));
-        var parsed = sourceRoot.parse(
-                clazz.getPackageName(),
-                clazz.getSimpleName() + ".java"
+        var builder = new StringBuilder();
+        try {
+            generate(builder);
+        } catch (IOException e) {
+            // a StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Streams the test class into the given {@link Appendable}, e.g. a {@link java.io.Writer}, one test method at a time.
+     * The {@link Appendable} is neither flushed nor closed.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void generate(Appendable out) throws IOException {
+        generate(parseClazz(), clazz.getPackageName(), clazz.getSimpleName(), out);
+    }
+
+    /**
+     * @return the declaration of the class, or its whole compilation unit if it is not declared at the top level.
+     * Without branch tests the signatures can be read from the loaded class instead of its source.
+     */
+    private Node parseClazz() {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz can not be null");
+        }
+        if (signaturesFromClass && !generateTestsForIfStatements) {
+            return ClassSignatures.of(clazz);
+        }
+        var parsed = parseCache.parse(Paths.get(sourcePath)
+                .resolve(clazz.getPackageName().replace('.', '/'))
+                .resolve(clazz.getSimpleName() + ".java"));
+        return parsed.getTypes().stream()
+                .filter(declaration -> declaration.getNameAsString().equals(clazz.getSimpleName()))
+                .findFirst()
+                .map(Node.class::cast)
+                .orElse(parsed);
+    }
+
+    /**
+     * Streams the test class into its file below the given source root, an unchanged file is not touched
+     *
+     * @param testSourcePath e.g. 'src/test/java'
+     * @return the written file
+     * @throws IOException
+     */
+    public GenerationSummary.GeneratedFile generateTo(Path testSourcePath) throws IOException {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz can not be null");
+        }
+        var path = testSourcePath.resolve(GeneratedTest.relativePath(clazz.getPackageName(), clazz.getSimpleName() + "Test"));
+        return new GenerationSummary.GeneratedFile(path, SourceFileWriter.write(path, this::generate, SourceFileWriter.Mode.IF_CHANGED));
+    }
+
+    /**
+     * Updates the test class below the given source root with the tests of the methods which were added or changed
+     * since the last generation, the tests of removed methods are deleted.
+     * <p>
+     * A sidecar index next to the test file keeps the hash of every tested method and the names of its tests.
+     * The test file is edited in place, everything but the tests of the changed methods is kept as it is.
+     * The whole test class is generated if there is no index yet, or if the configuration or the class header changed.
+     *
+     * @param testSourcePath e.g. 'src/test/java'
+     * @return the written file
+     * @throws IOException
+     */
+    public GenerationSummary.GeneratedFile generateIncrementally(Path testSourcePath) throws IOException {
+        var type = parseClazz();
+        var simpleName = clazz.getSimpleName();
+        var testFile = testSourcePath.resolve(GeneratedTest.relativePath(clazz.getPackageName(), simpleName + "Test"));
+        var indexFile = TestIndex.pathOf(testFile);
+
+        var header = new StringBuilder();
+        var mocks = generateHeader(type, clazz.getPackageName(), simpleName, header);
+        var headerHash = Hashing.sha256(configuration() + "\n" + header);
+        var methods = selectedMethods(type);
+        var branchesByMethod = collectBranches(type);
+        var index = Files.exists(testFile)
+                ? TestIndex.read(indexFile).filter(existing -> existing.getHeaderHash().equals(headerHash))
+                : Optional.<TestIndex>empty();
+
+        if (index.isEmpty()) {
+            var entries = new ArrayList<TestIndex.Entry>();
+            var result = SourceFileWriter.write(testFile, out -> {
+                out.append(header);
+                var tests = new TestMethods(out, testMethodTemplate, parameterizedTestMethodTemplate, mocks, Set.of());
+                for (var method : methods) {
+                    var testNames = generateTestsOfMethod(method, branchesByMethod, tests);
+                    entries.add(new TestIndex.Entry(signatureOf(method), Hashing.sha256(method.toString()), testNames));
+                }
+                out.append("}\n");
+            }, SourceFileWriter.Mode.IF_CHANGED);
+            new TestIndex(headerHash, entries).write(indexFile);
+            return new GenerationSummary.GeneratedFile(testFile, result);
+        }
+
+        var previous = index.get();
+        var signatures = new HashSet<String>();
+        var changed = new ArrayList<MethodDeclaration>();
+        var entries = new ArrayList<TestIndex.Entry>();
+        for (var method : methods) {
+            var signature = signatureOf(method);
+            signatures.add(signature);
+            var hash = Hashing.sha256(method.toString());
+            var entry = previous.get(signature).filter(existing -> existing.hash().equals(hash));
+            if (entry.isPresent()) {
+                entries.add(entry.get());
+            } else {
+                changed.add(method);
+                entries.add(new TestIndex.Entry(signature, hash, List.of()));
+            }
+        }
+        var removed = previous.getEntries().stream()
+                .filter(entry -> !signatures.contains(entry.signature()))
+                .toList();
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return new GenerationSummary.GeneratedFile(testFile, SourceFileWriter.Result.UNCHANGED);
+        }
+
+        var source = Files.readString(testFile);
+        var testClass = ParseCache.parseSource(source).getTypes().stream()
+                .filter(declaration -> declaration.getNameAsString().equals(simpleName + "Test"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("the test class " + simpleName + "Test is not declared in " + testFile));
+        var testMethodsByName = testClass.getMethods().stream()
+                .collect(Collectors.groupingBy(MethodDeclaration::getNameAsString));
+
+        var replacedNames = new HashSet<String>();
+        changed.forEach(method -> previous.get(signatureOf(method)).ifPresent(entry -> replacedNames.addAll(entry.testNames())));
+        removed.forEach(entry -> replacedNames.addAll(entry.testNames()));
+        var usedNames = new HashSet<>(testMethodsByName.keySet());
+        usedNames.removeAll(replacedNames);
+
+        var edits = new ArrayList<SourceEdit>();
+        removed.forEach(entry -> entry.testNames().forEach(name -> removeTestMethods(source, testMethodsByName, name, edits)));
+        var appended = new StringBuilder();
+        var tests = new TestMethods(appended, testMethodTemplate, parameterizedTestMethodTemplate, mocks, usedNames);
+        for (var method : changed) {
+            var oldTestNames = previous.get(signatureOf(method)).map(TestIndex.Entry::testNames).orElse(List.of());
+            oldTestNames.forEach(name -> removeTestMethods(source, testMethodsByName, name, edits));
+            var generated = appended.length();
+            var testNames = generateTestsOfMethod(method, branchesByMethod, tests);
+            var position = oldTestNames.stream()
+                    .flatMap(name -> testMethodsByName.getOrDefault(name, List.of()).stream())
+                    .mapToInt(declaration -> lineStart(source, declaration.getBegin().orElseThrow().line))
+                    .min();
+            if (position.isPresent()) {
+                edits.add(new SourceEdit(position.getAsInt(), position.getAsInt(), appended.substring(generated)));
+                appended.setLength(generated);
+            }
+            var signature = signatureOf(method);
+            entries.replaceAll(entry -> entry.signature().equals(signature) ? new TestIndex.Entry(signature, entry.hash(), testNames) : entry);
+        }
+        var classEnd = lineStart(source, testClass.getEnd().orElseThrow().line);
+        edits.add(new SourceEdit(classEnd, classEnd, appended.toString()));
+
+        var result = SourceFileWriter.write(testFile, SourceEdit.apply(source, edits), SourceFileWriter.Mode.IF_CHANGED);
+        new TestIndex(headerHash, entries).write(indexFile);
+        return new GenerationSummary.GeneratedFile(testFile, result);
+    }
+
+    /**
+     * @return the settings which change the generated tests of a method
+     */
+    private String configuration() {
+        return String.join("\n",
+                String.valueOf(generateTestsForIfStatements),
+                String.valueOf(generateParameterizedTests),
+                String.valueOf(signaturesFromClass),
+                permutationStrategy.toString(),
+                testMethodTemplate.getTemplate(),
+                parameterizedTestMethodTemplate.getTemplate()
         );
+    }
+
+    private static String signatureOf(MethodDeclaration method) {
+        return method.getSignature().asString();
+    }
+
+    /**
+     * Removes the methods of the given name including their line breaks and the blank line following them
+     */
+    private static void removeTestMethods(String source, Map<String, List<MethodDeclaration>> testMethodsByName, String name, List<SourceEdit> edits) {
+        for (var declaration : testMethodsByName.getOrDefault(name, List.of())) {
+            var start = lineStart(source, declaration.getBegin().orElseThrow().line);
+            var end = lineStart(source, declaration.getEnd().orElseThrow().line + 1);
+            if (source.startsWith("\n", end)) {
+                end++;
+            } else if (source.startsWith("\r\n", end)) {
+                end += 2;
+            }
+            edits.add(new SourceEdit(start, end, ""));
+        }
+    }
+
+    /**
+     * @param line 1 based
+     * @return the offset of the first character of the line, the length of the source after its last line
+     */
+    private static int lineStart(String source, int line) {
+        var offset = 0;
+        for (int current = 1; current < line; current++) {
+            offset = source.indexOf('\n', offset);
+            if (offset < 0) {
+                return source.length();
+            }
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Replaces the characters from start to end of a source
+     */
+    private record SourceEdit(int start, int end, String replacement) {
+
+        static String apply(String source, List<SourceEdit> edits) {
+            var sorted = new ArrayList<>(edits);
+            // insertions go before a removal at the same position
+            sorted.sort(Comparator.comparingInt(SourceEdit::start).thenComparingInt(edit -> edit.end() - edit.start()));
+            var builder = new StringBuilder(source.length());
+            var position = 0;
+            for (var edit : sorted) {
+                // a range can be removed twice if its method is listed for several tested methods
+                builder.append(source, position, Math.max(position, edit.start())).append(edit.replacement());
+                position = Math.max(position, edit.end());
+            }
+            return builder.append(source, position, source.length()).toString();
+        }
+    }
+
+    /**
+     * Generates a test class for every top level class in the source path whose fully qualified name matches the type regex.
+     * <p>
+     * The files are selected by their path before they are parsed, in parallel and through the parse cache.
+     * The classes are never loaded, the package and the names are taken from the sources.
+     * A type which can not be parsed or generated does not abort the run, its failure is collected in the result.
+     *
+     * @return the generated tests ordered by their package and class name
+     */
+    public GenerationResult<GeneratedTest> generateAll() {
+        var result = generateAll(tested -> new GeneratedTest(tested.packageName(), tested.testClassName(), generate(tested)));
+        var sorted = result.generated().stream()
+                .sorted(Comparator.comparing(GeneratedTest::packageName).thenComparing(GeneratedTest::className))
+                .toList();
+        return new GenerationResult<>(sorted, result.failures());
+    }
+
+    /**
+     * Streams the tests of {@link #generateAll()} into their files below the given source root, unchanged files are not touched
+     *
+     * @param testSourcePath e.g. 'src/test/java'
+     * @return the written files and the types which could not be generated
+     */
+    public GenerationResult<GenerationSummary.GeneratedFile> generateAll(Path testSourcePath) {
+        return generateAll(tested -> {
+            var path = testSourcePath.resolve(GeneratedTest.relativePath(tested.packageName(), tested.testClassName()));
+            try {
+                var result = SourceFileWriter.write(path, out -> generate(tested.type(), tested.packageName(), tested.type().getNameAsString(), out), SourceFileWriter.Mode.IF_CHANGED);
+                return new GenerationSummary.GeneratedFile(path, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <T> GenerationResult<T> generateAll(Function<TestedType, T> generator) {
+        var root = Paths.get(sourcePath);
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths
+                    .filter(path -> path.getFileName().toString().endsWith(".java"))
+                    .filter(path -> qualifiedNameOf(root.relativize(path)).matches(typeRegex))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var outcomes = files.parallelStream()
+                .flatMap(file -> {
+                    List<TestedType> testedTypes;
+                    try {
+                        testedTypes = testedTypes(file);
+                    } catch (RuntimeException e) {
+                        return Stream.of(Outcome.<T>failed(new Failure(qualifiedNameOf(root.relativize(file)), file, e)));
+                    }
+                    return testedTypes.stream().map(tested -> {
+                        try {
+                            return Outcome.generated(generator.apply(tested));
+                        } catch (RuntimeException e) {
+                            return Outcome.<T>failed(new Failure(qualifiedName(tested.packageName(), tested.type().getNameAsString()), file, e));
+                        }
+                    });
+                })
+                .toList();
+        var generated = new ArrayList<T>();
+        var failures = new ArrayList<Failure>();
+        for (var outcome : outcomes) {
+            if (outcome.failure() == null) {
+                generated.add(outcome.generated());
+            } else {
+                failures.add(outcome.failure());
+            }
+        }
+        return new GenerationResult<>(generated, failures);
+    }
+
+    /**
+     * @return the types of the file matching the type regex
+     */
+    private List<TestedType> testedTypes(Path file) {
+        var parsed = parseCache.parse(file);
+        var packageName = parsed.getPackageDeclaration()
+                .map(declaration -> declaration.getNameAsString())
+                .orElse("");
+        return parsed.getTypes().stream()
+                .filter(UnitTestGenerator::isTestable)
+                .filter(type -> qualifiedName(packageName, type.getNameAsString()).matches(typeRegex))
+                .map(type -> new TestedType(packageName, type))
+                .toList();
+    }
+
+    private record TestedType(String packageName, TypeDeclaration<?> type) {
+
+        String testClassName() {
+            return type.getNameAsString() + "Test";
+        }
+    }
+
+    private record Outcome<T>(T generated, Failure failure) {
+
+        static <T> Outcome<T> generated(T generated) {
+            return new Outcome<>(generated, null);
+        }
+
+        static <T> Outcome<T> failed(Failure failure) {
+            return new Outcome<>(null, failure);
+        }
+    }
 
+    /**
+     * The outcome of {@link #generateAll()} and {@link #generateAll(Path)}
+     *
+     * @param generated the generated tests or files
+     * @param failures  the types which could not be parsed or generated
+     */
+    public record GenerationResult<T>(List<T> generated, List<Failure> failures) {
+
+        public GenerationResult {
+            generated = List.copyOf(generated);
+            failures = List.copyOf(failures);
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+    }
+
+    /**
+     * @param typeName the fully qualified name of the tested type, or the one derived from the path if the file can not be parsed
+     * @param source   the file of the tested type
+     * @param cause
+     */
+    public record Failure(String typeName, Path source, Throwable cause) {
+    }
+
+    private String generate(TestedType tested) {
         var builder = new StringBuilder();
+        try {
+            generate(tested.type(), tested.packageName(), tested.type().getNameAsString(), builder);
+        } catch (IOException e) {
+            // a StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    private static boolean isTestable(TypeDeclaration<?> type) {
+        return type instanceof ClassOrInterfaceDeclaration declaration
+                && !declaration.isInterface()
+                && !declaration.isAbstract();
+    }
+
+    private static String qualifiedNameOf(Path relativePath) {
+        var name = relativePath.toString();
+        return name.substring(0, name.length() - ".java".length()).replace(relativePath.getFileSystem().getSeparator(), ".");
+    }
+
+    private static String qualifiedName(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
 
-        builder.append("package " + clazz.getPackageName() + ";\n");
-        builder.append("\n");
-        builder.append("""
+    private void generate(Node parsed, String packageName, String simpleName, Appendable out) throws IOException {
+        var mocks = generateHeader(parsed, packageName, simpleName, out);
+        var branchesByMethod = collectBranches(parsed);
+        var tests = new TestMethods(out, testMethodTemplate, parameterizedTestMethodTemplate, mocks, Set.of());
+        for (var method : selectedMethods(parsed)) {
+            generateTestsOfMethod(method, branchesByMethod, tests);
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Generates everything up to the first test: the package, the imports, the constructor arguments and the initialization of the target
+     *
+     * @return the names of the mocked constructor arguments
+     */
+    private List<String> generateHeader(Node parsed, String packageName, String simpleName, Appendable out) throws IOException {
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n");
+            out.append("\n");
+        }
+        out.append("""
                 import org.junit.jupiter.api.BeforeEach;
                 import org.junit.jupiter.api.Test;
                 import org.mockito.junit.jupiter.MockitoExtension;
@@ -88,95 +670,160 @@ public final class UnitTestGenerator {
                 import static org.assertj.core.api.Assertions.*;
                 import static org.mockito.Mockito.*;
                 """);
-        builder.append("\n");
+        if (generateParameterizedTests) {
+            out.append("""
+                    import org.junit.jupiter.params.ParameterizedTest;
+                    import org.junit.jupiter.params.provider.Arguments;
+                    import org.junit.jupiter.params.provider.MethodSource;
+                                    
+                    import java.util.stream.Stream;
+                                    
+                    import static org.junit.jupiter.params.provider.Arguments.arguments;
+                    """);
+        }
+        out.append("\n");
 
-        builder.append("@ExtendWith(MockitoExtension.class)\n");
-        builder.append("class " + clazz.getSimpleName() + "Test {\n");
-        builder.append("\n");
+        out.append("@ExtendWith(MockitoExtension.class)\n");
+        out.append("class ").append(simpleName).append("Test {\n");
+        out.append("\n");
         List<String> mocks = new ArrayList<>();
         List<ConstructorDeclaration> constructors = parsed.findAll(ConstructorDeclaration.class);
-        constructors.stream()
+        var accessibleConstructors = constructors.stream()
                 .filter(constructorDeclaration -> !constructorDeclaration.hasModifier(Modifier.Keyword.PRIVATE))
+                .toList();
+        var constructorParameters = accessibleConstructors.stream()
                 .map(CallableDeclaration::getParameters)
                 .flatMap(Collection::stream)
                 .distinct()
-                .forEach(parameter -> {
-                    ClassOrInterfaceType type = (ClassOrInterfaceType) parameter.getType();
-                    if (type.isPrimitiveType() || type.isBoxedType()){
-                        builder.append("    " + parameter + " = 42;\n");
-                    } else if (type.getNameAsString().equals("String")) {
-                        builder.append("    " + parameter + " = \"42\";\n");
-                    } else {
-                        builder.append("    @Mock\n");
-                        builder.append("    " + parameter +";\n");
-                        mocks.add(parameter.getNameAsString());
-                    }
-                });
+                .toList();
+        for (var parameter : constructorParameters) {
+            var type = getBoxedType(parameter);
+            if (isBoxedType(type)) {
+                out.append("    ").append(parameter.toString()).append(" = 42;\n");
+            } else if (isString(type)) {
+                out.append("    ").append(parameter.toString()).append(" = \"42\";\n");
+            } else if (type.isArrayType()) {
+                out.append("    ").append(declaration(parameter)).append(" = ").append(emptyArray(type.asArrayType())).append(";\n");
+            } else {
+                out.append("    @Mock\n");
+                out.append("    ").append(parameter.toString()).append(";\n");
+                mocks.add(parameter.getNameAsString());
+            }
+        }
 
-        builder.append("\n");
+        out.append("\n");
 
-        builder.append("    " + clazz.getSimpleName() + " target;\n");
-        builder.append("\n");
-        builder.append("    @BeforeEach\n");
-        builder.append("    void init() {\n");
-        constructors.stream()
-                .filter(constructorDeclaration -> !constructorDeclaration.hasModifier(Modifier.Keyword.PRIVATE))
-                .forEach(constructorDeclaration -> {
-                    String arguments = constructorDeclaration.getParameters()
-                            .stream().map(Parameter::getNameAsString)
-                            .collect(Collectors.joining(", "));
+        out.append("    ").append(simpleName).append(" target;\n");
+        out.append("\n");
+        out.append("    @BeforeEach\n");
+        out.append("    void init() {\n");
+        for (var constructorDeclaration : accessibleConstructors) {
+            String arguments = constructorDeclaration.getParameters()
+                    .stream().map(Parameter::getNameAsString)
+                    .collect(Collectors.joining(", "));
 
-                    builder.append("        target = new " + clazz.getSimpleName() + "(" + arguments +");\n");
-                });
+            out.append("        target = new ").append(simpleName).append("(").append(arguments).append(");\n");
+        }
         if (constructors.isEmpty()) {
-            builder.append("        target = new " + clazz.getSimpleName() + "();\n");
+            out.append("        target = new ").append(simpleName).append("();\n");
         }
-        builder.append("    }\n");
-        builder.append("\n");
+        out.append("    }\n");
+        out.append("\n");
 
-        parsed.findAll(MethodDeclaration.class).stream()
+        return mocks;
+    }
+
+    private Map<CallableDeclaration<?>, MethodBranches> collectBranches(Node parsed) {
+        return generateTestsForIfStatements
+                ? MethodBranches.collect(parsed)
+                : Map.of();
+    }
+
+    private List<MethodDeclaration> selectedMethods(Node parsed) {
+        return parsed.findAll(MethodDeclaration.class).stream()
                 .filter(declaration -> !declaration.hasModifier(Modifier.Keyword.PRIVATE))
                 .filter(declaration -> declaration.getNameAsString().matches(methodRegex))
-                .forEach(method -> {
-
-            var methodName = method.getNameAsString();
-            var parameters = method.getParameters();
-            var methodNamePascalCase = methodName.substring(0, 1).toUpperCase() + methodName.substring(1);
-            var methodInvocation = getMethodInvocation(methodName, parameters);
-            var arguments = parameters.stream().map(param ->
-                    "        " + generateMockedVariable(param)).collect(Collectors.joining("\n")
-            );
+                .toList();
+    }
 
-            builder.append(generateTestsForMethodInvocationWithPermutatedArguments(parameters, methodNamePascalCase, methodInvocation, mocks));
+    /**
+     * @return the names of the emitted test methods
+     */
+    private List<String> generateTestsOfMethod(MethodDeclaration method, Map<CallableDeclaration<?>, MethodBranches> branchesByMethod, TestMethods tests) throws IOException {
+        var methodName = method.getNameAsString();
+        var parameters = method.getParameters();
+        var methodNamePascalCase = methodName.substring(0, 1).toUpperCase() + methodName.substring(1);
+        var methodInvocation = getMethodInvocation(methodName, parameters);
+        var arguments = parameters.stream().map(param ->
+                "        " + generateMockedVariable(param)).collect(Collectors.joining("\n")
+        );
+        tests.begin(methodNamePascalCase);
 
-            if (generateTestsForIfStatements) {
-                builder.append(generataTestsForIfStatements(parsed, methodName, methodNamePascalCase, methodInvocation, arguments, mocks));
-                builder.append(generataTestsForTernaryStatements(parsed, methodName, methodNamePascalCase, methodInvocation, arguments, mocks));
-                builder.append(geterateTestForSwitchCases(parsed, methodName, methodNamePascalCase, methodInvocation, arguments, mocks));
-            }
-        });
-        builder.append("}\n");
-        return builder.toString();
+        if (generateTestsForIfStatements) {
+            var call = new TestCall(arguments, methodInvocation);
+            var branches = branchesByMethod.getOrDefault(method, MethodBranches.NONE);
+            addTestsForIfStatements(tests, branches.ifStmts(), methodNamePascalCase, call);
+            addTestsForTernaryStatements(tests, branches.conditionalExprs(), methodNamePascalCase, call);
+            addTestsForSwitchCases(tests, branches.switchStmts(), methodNamePascalCase, call);
+        }
+
+        if (generateParameterizedTests && !parameters.isEmpty()) {
+            generateParameterizedTestForMethodInvocation(tests, parameters, methodNamePascalCase, methodInvocation);
+        } else {
+            generateTestsForMethodInvocationWithPermutatedArguments(tests, parameters, methodNamePascalCase, methodInvocation);
+        }
+        tests.flush();
+        return tests.takeEmittedNames();
     }
 
     private String generateMockedVariable(Parameter param) {
         Type type = getBoxedType(param);
-        if (((ClassOrInterfaceType) type).isBoxedType()) {
+        if (isBoxedType(type)) {
             return  param + " = 42;";
-        } else if (((ClassOrInterfaceType) type).getNameAsString().equals("String")) {
+        } else if (isString(type)) {
             return param + " = \"42\";";
+        } else if (type.isArrayType()) {
+            return declaration(param) + " = " + emptyArray(type.asArrayType()) + ";";
         }
         return param + " = mock(" + type.asString() + ".class);";
     }
 
-    private Type getBoxedType(Parameter param) {
+    /**
+     * @return the type of the parameter, a primitive type boxed and varargs as array
+     */
+    private static Type getBoxedType(Parameter param) {
         var type = param.getType();
+        if (param.isVarArgs()) {
+            return new ArrayType(type);
+        }
         if (type.isPrimitiveType()) {
-            type = ((PrimitiveType) type).toBoxedType();
+            type = type.asPrimitiveType().toBoxedType();
         }
         return type;
     }
 
+    /**
+     * @return the parameter as declaration of a variable, varargs are declared as array
+     */
+    private static String declaration(Parameter param) {
+        return param.isVarArgs() ? getBoxedType(param) + " " + param.getNameAsString() : param.toString();
+    }
+
+    private static boolean isBoxedType(Type type) {
+        return type.isClassOrInterfaceType() && type.asClassOrInterfaceType().isBoxedType();
+    }
+
+    private static boolean isString(Type type) {
+        return type.isClassOrInterfaceType() && type.asClassOrInterfaceType().getNameAsString().equals("String");
+    }
+
+    /**
+     * @return e.g. 'new int[0]' or 'new String[0][]'
+     */
+    private static String emptyArray(ArrayType type) {
+        return "new " + type.getElementType() + "[0]" + "[]".repeat(type.getArrayLevel() - 1);
+    }
+
     private String getMethodInvocation(String methodName, NodeList<Parameter> parameters) {
         return "        var actual = target." + methodName + "(" + parameters.stream()
                 .map(Parameter::getNameAsString)
@@ -184,192 +831,323 @@ public final class UnitTestGenerator {
                 + ");";
     }
 
-    private StringBuilder generateTestsForMethodInvocationWithPermutatedArguments(NodeList<Parameter> parameters, String methodNamePascalCase, String methodInvocation, List<String> mocks) {
-        var builder = new StringBuilder();
-        generatePermutations(parameters).forEach(p -> {
-            builder.append("    @Test\n");
-            builder.append(
-                    "    void test" + methodNamePascalCase + "Where" +
-                            Arrays.stream(p)
-                                    .map(param -> {
-                                        var split = param.split("\s+");
-                                        var variableNamePascalCase = split[1].substring(0, 1).toUpperCase() + split[1].substring(1);
-                                        return variableNamePascalCase + split[2] + split[3];
-                                    })
-                                    .map(param -> param.replaceAll("\s*=\s*", "Is"))
-                                    .map(param -> param.replaceAll(";", ""))
-                                    .map(param -> param.replaceAll("\"", ""))
-                                    .map(param -> param.replaceAll("Isnull", "IsNull"))
-                                    .map(param -> param.replaceAll("mock\\(((?!\\)).)+\\)", "IsMocked"))
-                                    .collect(Collectors.joining("And")) + "() {\n"
-            );
-            String arguments = Arrays.stream(p).map(param -> "        " + param).collect(Collectors.joining("\n"));
-            builder.append("        // GIVEN\n");
-            builder.append(arguments);
-            builder.append("\n");
-            builder.append("\n");
-            builder.append("        // WHEN\n");
-            builder.append(methodInvocation);
-            builder.append("\n");
-            builder.append("\n");
-            builder.append("        // THEN\n");
-            builder.append("        assertThat(actual).isNotNull();\n");
-            if (!mocks.isEmpty()) {
-                builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
+    private void generateTestsForMethodInvocationWithPermutatedArguments(TestMethods tests, NodeList<Parameter> parameters, String methodNamePascalCase, String methodInvocation) throws IOException {
+        var fragments = parameters.stream().map(this::argumentFragments).toList();
+        var combinations = permutationStrategy.combinations(fragments.size()).iterator();
+        while (combinations.hasNext()) {
+            var combination = combinations.next();
+            var name = new StringBuilder("test").append(methodNamePascalCase).append("Where");
+            var arguments = new StringBuilder();
+            for (int i = 0; i < combination.length; i++) {
+                if (i > 0) {
+                    name.append("And");
+                    arguments.append("\n");
+                }
+                name.append(fragments.get(i).name(combination[i]));
+                arguments.append("        ").append(fragments.get(i).line(combination[i]));
             }
-            builder.append("    }\n");
-            builder.append("\n");
-        });
-        return builder;
+            tests.emit(name.toString(), new TestCall(arguments.toString(), methodInvocation));
+        }
     }
 
-    private StringBuilder generataTestsForIfStatements(CompilationUnit parsed, String methodName, String methodNamePascalCase, String methodInvocation, String arguments, List<String> mocks) {
-        var builder = new StringBuilder();
-        parsed.findAll(IfStmt.class).stream()
-                .filter(ifStmt -> methodName.equals(getMethodName(ifStmt)))
-                .forEach(expression -> {
-                    builder.append("    @Test\n");
-                    builder.append("    // " + expression.getCondition() + "\n");
-                    builder.append("    void testIfConditionIn" + methodNamePascalCase + "() {\n");
-                    builder.append("        // GIVEN\n");
-                    builder.append(arguments);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // WHEN\n");
-                    builder.append(methodInvocation);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // THEN\n");
-                    builder.append("        assertThat(actual).isNotNull();\n");
-                    if (!mocks.isEmpty()) {
-                        builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
-                    }
-                    builder.append("    }\n");
-                    builder.append("\n");
-                    if (expression.hasElseBlock()) {
-                        builder.append("    @Test\n");
-                        builder.append("    // " + expression.getCondition()+ "\n");
-                        builder.append("    void testElseConditionIn" + methodNamePascalCase + "() {\n");
-                        builder.append("        // GIVEN\n");
-                        builder.append(arguments);
-                        builder.append("\n");
-                        builder.append("\n");
-                        builder.append("        // WHEN\n");
-                        builder.append(methodInvocation);
-                        builder.append("\n");
-                        builder.append("\n");
-                        builder.append("        // THEN\n");
-                        builder.append("        assertThat(actual).isNotNull();\n");
-                        if (!mocks.isEmpty()) {
-                            builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
+    private void generateParameterizedTestForMethodInvocation(TestMethods tests, NodeList<Parameter> parameters, String methodNamePascalCase, String methodInvocation) throws IOException {
+        var values = parameters.stream().map(this::argumentValue).toList();
+        // a single null would be passed as null array to the varargs of arguments(...)
+        var nullValue = parameters.size() == 1 ? "(Object) null" : "null";
+        var argumentRows = permutationStrategy.combinations(values.size())
+                .map(combination -> {
+                    var row = new StringBuilder("                arguments(");
+                    for (int i = 0; i < combination.length; i++) {
+                        if (i > 0) {
+                            row.append(", ");
                         }
-                        builder.append("    }\n");
-                        builder.append("\n");
+                        row.append(combination[i] ? values.get(i) : nullValue);
                     }
-                });
-        return builder;
+                    return row.append(")").toString();
+                })
+                .collect(Collectors.joining(",\n"));
+        var testParameters = parameters.stream()
+                .map(param -> getBoxedType(param) + " " + param.getNameAsString())
+                .collect(Collectors.joining(", "));
+        tests.emitParameterized("test" + methodNamePascalCase, testParameters, new TestCall("", methodInvocation), argumentRows);
     }
 
-    private StringBuilder generataTestsForTernaryStatements(CompilationUnit parsed, String methodName, String methodNamePascalCase, String methodInvocation, String arguments, List<String> mocks) {
-        var builder = new StringBuilder();
-        parsed.findAll(ConditionalExpr.class).stream()
-                .filter(ifStmt -> methodName.equals(getMethodName(ifStmt)))
-                .forEach(expression -> {
-                    builder.append("    @Test\n");
-                    builder.append("    // " + expression.getCondition() + "\n");
-                    builder.append("    void testTernaryConditionIn" + methodNamePascalCase + "() {\n");
-                    builder.append("        // GIVEN\n");
-                    builder.append(arguments);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // WHEN\n");
-                    builder.append(methodInvocation);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // THEN\n");
-                    builder.append("        assertThat(actual).isNotNull();\n");
-                    if (!mocks.isEmpty()) {
-                        builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
-                    }
-                    builder.append("    }\n");
-                    builder.append("\n");
-                    builder.append("    @Test\n");
-                    builder.append("    // " + expression.getCondition() + "\n");
-                    builder.append("    void testTernaryElseConditionIn" + methodNamePascalCase + "() {\n");
-                    builder.append("        // GIVEN\n");
-                    builder.append(arguments);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // WHEN\n");
-                    builder.append(methodInvocation);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // THEN\n");
-                    builder.append("        assertThat(actual).isNotNull();\n");
-                    if (!mocks.isEmpty()) {
-                        builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
-                    }
-                    builder.append("    }\n");
-                    builder.append("\n");
-                });
-        return builder;
+    /**
+     * @return the non null value of a parameter as an expression of its boxed type
+     */
+    private String argumentValue(Parameter param) {
+        var type = getBoxedType(param);
+        if (type.isArrayType()) {
+            return emptyArray(type.asArrayType());
+        } else if (isBoxedType(type)) {
+            return switch (type.asClassOrInterfaceType().getNameAsString()) {
+                case "Long" -> "42L";
+                case "Float" -> "42f";
+                case "Double" -> "42d";
+                case "Short" -> "(short) 42";
+                case "Byte" -> "(byte) 42";
+                case "Character" -> "(char) 42";
+                case "Boolean" -> "true";
+                default -> "42";
+            };
+        } else if (isString(type)) {
+            return "\"42\"";
+        } else if (type.isClassOrInterfaceType()) {
+            return "mock(" + type.asClassOrInterfaceType().getNameWithScope() + ".class)";
+        }
+        return "mock(" + type.asString() + ".class)";
     }
 
-    private StringBuilder geterateTestForSwitchCases(CompilationUnit parsed, String methodName, String methodNamePascalCase, String methodInvocation, String arguments, List<String> mocks) {
-        var builder = new StringBuilder();
-        parsed.findAll(SwitchStmt.class).stream()
-                .filter(ifStmt -> methodName.equals(getMethodName(ifStmt)))
+    private ArgumentFragments argumentFragments(Parameter param) {
+        var name = param.getNameAsString();
+        var namePascalCase = name.substring(0, 1).toUpperCase() + name.substring(1);
+        var valueLine = generateMockedVariable(param);
+        return new ArgumentFragments(
+                getBoxedType(param) + " " + name + " = null;",
+                valueLine,
+                namePascalCase + "IsNull",
+                namePascalCase + (valueLine.endsWith(".class);") ? "IsIsMocked" : getBoxedType(param).isArrayType() ? "IsEmpty" : "Is42")
+        );
+    }
+
+    /**
+     * The lines and test name parts of a parameter, computed once per method and shared by all of its permutations
+     *
+     * @param nullLine  declares the argument as null
+     * @param valueLine declares the argument with a value or a mock
+     * @param nullName  e.g. 'NIsNull'
+     * @param valueName e.g. 'NIs42', 'QIsIsMocked' or 'ValuesIsEmpty'
+     */
+    private record ArgumentFragments(String nullLine, String valueLine, String nullName, String valueName) {
+
+        String line(boolean nonNull) {
+            return nonNull ? valueLine : nullLine;
+        }
+
+        String name(boolean nonNull) {
+            return nonNull ? valueName : nullName;
+        }
+    }
+
+    private void addTestsForIfStatements(TestMethods tests, List<IfStmt> ifStmts, String methodNamePascalCase, TestCall call) {
+        ifStmts.forEach(expression -> {
+            tests.addBranch("testIfConditionIn" + methodNamePascalCase, "if: " + expression.getCondition(), call);
+            if (expression.hasElseBlock()) {
+                tests.addBranch("testElseConditionIn" + methodNamePascalCase, "else: " + expression.getCondition(), call);
+            }
+        });
+    }
+
+    private void addTestsForTernaryStatements(TestMethods tests, List<ConditionalExpr> conditionalExprs, String methodNamePascalCase, TestCall call) {
+        conditionalExprs.forEach(expression -> {
+            tests.addBranch("testTernaryConditionIn" + methodNamePascalCase, "ternary: " + expression.getCondition(), call);
+            tests.addBranch("testTernaryElseConditionIn" + methodNamePascalCase, "ternary else: " + expression.getCondition(), call);
+        });
+    }
+
+    private void addTestsForSwitchCases(TestMethods tests, List<SwitchStmt> switchStmts, String methodNamePascalCase, TestCall call) {
+        switchStmts.stream()
                 .map(SwitchStmt::getEntries)
                 .flatMap(Collection::stream)
                 .collect(Collectors.groupingBy(
                         switchEntry -> switchEntry.getLabels().stream().map(Objects::toString).collect(Collectors.joining(",")),
                         Collectors.mapping(switchEntry -> switchEntry.getStatements().stream().map(Objects::toString).collect(Collectors.joining()), Collectors.toList())
-                )).forEach((caze, statement) -> {
-                    builder.append("    @Test\n");
-                    builder.append("    // case " + caze + ": " + statement.stream().collect(Collectors.joining(" ")) + "\n");
-                    builder.append("    void testSwitchCaseConditionIn" + methodNamePascalCase + "() {\n");
-                    builder.append("        // GIVEN\n");
-                    builder.append(arguments);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // WHEN\n");
-                    builder.append(methodInvocation);
-                    builder.append("\n");
-                    builder.append("\n");
-                    builder.append("        // THEN\n");
-                    builder.append("        assertThat(actual).isNotNull();\n");
-                    if (!mocks.isEmpty()) {
-                        builder.append("verifyNoMoreInteractions(" + mocks.stream().collect(Collectors.joining(",")) + ");\n");
-                    }
-                    builder.append("    }\n");
-                    builder.append("\n");
-                });
-        return builder;
+                )).forEach((caze, statement) -> tests.addBranch(
+                        "testSwitchCaseConditionIn" + methodNamePascalCase,
+                        "case " + caze + ": " + String.join(" ", statement),
+                        call
+                ));
+    }
+
+    /**
+     * The arrangement and invocation of a tested method
+     *
+     * @param arguments  the GIVEN lines
+     * @param invocation the WHEN line
+     */
+    private record TestCall(String arguments, String invocation) {
     }
 
-    public String getMethodName(Node node) {
-        Optional<Node> currentNode = node.getParentNode();
-        while (currentNode.isPresent()) {
-            if (currentNode.get() instanceof MethodDeclaration declaration) {
-                return declaration.getNameAsString();
+    /**
+     * The emitted tests of a class. The branches of a method are collected first and listed as comments of the test
+     * they share their call with, the ones which do not share their call are emitted as tests of their own.
+     * <p>
+     * The permutation tests of a method are unique by construction, so only the branches and the names of the branch
+     * and parameterized tests are kept, never the permutation tests: the memory does not grow with their number.
+     * The permutation tests of the n-th overload of a method are suffixed with n instead. Every test is rendered by
+     * the compiled test method template.
+     */
+    private static final class TestMethods {
+        private final Appendable out;
+        private final CompiledTemplate testMethodTemplate;
+        private final CompiledTemplate parameterizedTestMethodTemplate;
+        private final String mocks;
+        private final String verification;
+        /**
+         * the methods of the test class and the branch and parameterized tests, but not the permutation tests
+         */
+        private final Set<String> names;
+        /**
+         * by the name of the tested method, the highest suffix of the permutation tests of its overloads
+         */
+        private final Map<String, Integer> permutationSuffixes = new HashMap<>();
+        private final Map<TestCall, TestMethod> pendingBranches = new LinkedHashMap<>();
+        private final List<String> emittedNames = new ArrayList<>();
+        private String method;
+        private int permutationSuffix;
+
+        /**
+         * @param usedNames the names of methods which already exist in the test class
+         */
+        TestMethods(Appendable out, CompiledTemplate testMethodTemplate, CompiledTemplate parameterizedTestMethodTemplate, List<String> mocks, Set<String> usedNames) {
+            this.out = out;
+            this.names = new HashSet<>(usedNames);
+            this.testMethodTemplate = testMethodTemplate;
+            this.parameterizedTestMethodTemplate = parameterizedTestMethodTemplate;
+            this.mocks = String.join(",", mocks);
+            this.verification = mocks.isEmpty() ? "" : "verifyNoMoreInteractions(" + this.mocks + ");\n";
+        }
+
+        /**
+         * Starts the tests of a method, its overloads are counted by their name
+         *
+         * @param methodNamePascalCase
+         */
+        void begin(String methodNamePascalCase) {
+            method = methodNamePascalCase;
+            permutationSuffix = permutationSuffixes.merge(methodNamePascalCase, 1, (highest, one) -> highest + one);
+        }
+
+        void addBranch(String name, String comment, TestCall call) {
+            pendingBranches.computeIfAbsent(call, c -> new TestMethod(name, "", call, null, new ArrayList<>()))
+                    .comments().add(comment);
+        }
+
+        /**
+         * Emits a permutation test right away, merged with the pending branches of the same call
+         *
+         * @param name the name of the test, unique among the permutation tests of the method
+         */
+        void emit(String name, TestCall call) throws IOException {
+            var branches = pendingBranches.remove(call);
+            var comments = branches == null ? List.<String>of() : branches.comments();
+            var uniqueName = permutationSuffix == 1 ? name : name + permutationSuffix;
+            for (int i = Math.max(permutationSuffix + 1, 2); names.contains(uniqueName); i++) {
+                uniqueName = name + i;
+                permutationSuffixes.merge(method, i, Math::max);
+            }
+            append(uniqueName, new TestMethod(name, "", call, null, comments));
+        }
+
+        /**
+         * Emits a parameterized test right away
+         *
+         * @param argumentRows the rows of its {@code @MethodSource}
+         */
+        void emitParameterized(String name, String parameters, TestCall call, String argumentRows) throws IOException {
+            append(uniqueName(name), new TestMethod(name, parameters, call, argumentRows, List.of()));
+        }
+
+        /**
+         * Emits the pending branches which did not share their call with any other test
+         */
+        void flush() throws IOException {
+            for (var pending : pendingBranches.values()) {
+                append(uniqueName(pending.name()), pending);
+            }
+            pendingBranches.clear();
+        }
+
+        /**
+         * @return the names of the test methods and argument sources emitted since the last call
+         */
+        List<String> takeEmittedNames() {
+            var taken = List.copyOf(emittedNames);
+            emittedNames.clear();
+            return taken;
+        }
+
+        private String uniqueName(String name) {
+            var uniqueName = name;
+            for (int i = 2; !names.add(uniqueName); i++) {
+                uniqueName = name + i;
+            }
+            return uniqueName;
+        }
+
+        private void append(String name, TestMethod test) throws IOException {
+            var branches = new StringBuilder();
+            for (var comment : test.comments()) {
+                branches.append("    // ").append(comment).append("\n");
+            }
+            var params = new HashMap<String, Object>();
+            params.put("testName", name);
+            params.put("branches", branches);
+            params.put("parameters", test.parameters());
+            params.put("arguments", test.call().arguments());
+            params.put("invocation", test.call().invocation());
+            params.put("mocks", mocks);
+            params.put("verification", verification);
+            emittedNames.add(name);
+            if (test.argumentRows() == null) {
+                testMethodTemplate.render(RenderContext.verbatim(params), out);
+            } else {
+                var argumentsSource = name.substring("test".length(), "test".length() + 1).toLowerCase() + name.substring("test".length() + 1) + "Arguments";
+                names.add(argumentsSource);
+                emittedNames.add(argumentsSource);
+                params.put("argumentsSource", argumentsSource);
+                params.put("argumentRows", test.argumentRows());
+                parameterizedTestMethodTemplate.render(RenderContext.verbatim(params), out);
             }
-            currentNode = currentNode.get().getParentNode();
         }
-        return "UNKNOWN_METHOD";
     }
 
-    private List<String[]> generatePermutations(NodeList<Parameter> params) {
-        var result = new ArrayList<String[]>();
-        int n = params.size();
-        int permutations = 1 << n;
-        for (int i = 0; i < permutations; i++) {
-            String[] permutation = new String[n];
-            for (int j = 0; j < n; j++) {
-                int bit = (i >> j) & 1;
-                permutation[j] = (bit == 0 ? getBoxedType(params.get(j)) + " " +  params.get(j).getNameAsString() + " = null;" : generateMockedVariable(params.get(j)));
+    /**
+     * @param name         the name of the test, made unique when it is emitted
+     * @param parameters   the parameters of the test method, empty for a plain test
+     * @param call         the arrangement and invocation of the tested method
+     * @param argumentRows the rows of the {@code @MethodSource} of a parameterized test, {@code null} for a plain test
+     * @param comments     the branches the test stands for
+     */
+    private record TestMethod(String name, String parameters, TestCall call, String argumentRows, List<String> comments) {
+    }
+
+    /**
+     * The branches of a method or constructor, collected for all callables in a single pass over the compilation unit
+     */
+    private record MethodBranches(List<IfStmt> ifStmts, List<ConditionalExpr> conditionalExprs, List<SwitchStmt> switchStmts) {
+
+        static final MethodBranches NONE = new MethodBranches(List.of(), List.of(), List.of());
+
+        /**
+         * @param parsed
+         * @return the branches by their enclosing callable, compared by identity so overloads are kept apart
+         */
+        static Map<CallableDeclaration<?>, MethodBranches> collect(Node parsed) {
+            var branchesByCallable = new IdentityHashMap<CallableDeclaration<?>, MethodBranches>();
+            collect(parsed, null, branchesByCallable);
+            return branchesByCallable;
+        }
+
+        private static void collect(Node node, CallableDeclaration<?> callable, Map<CallableDeclaration<?>, MethodBranches> branchesByCallable) {
+            if (node instanceof CallableDeclaration<?> declaration) {
+                callable = declaration;
+            } else if (callable != null) {
+                if (node instanceof IfStmt ifStmt) {
+                    branchesOf(callable, branchesByCallable).ifStmts().add(ifStmt);
+                } else if (node instanceof ConditionalExpr conditionalExpr) {
+                    branchesOf(callable, branchesByCallable).conditionalExprs().add(conditionalExpr);
+                } else if (node instanceof SwitchStmt switchStmt) {
+                    branchesOf(callable, branchesByCallable).switchStmts().add(switchStmt);
+                }
             }
-            result.add(permutation);
+            for (var child : node.getChildNodes()) {
+                collect(child, callable, branchesByCallable);
+            }
+        }
+
+        private static MethodBranches branchesOf(CallableDeclaration<?> callable, Map<CallableDeclaration<?>, MethodBranches> branchesByCallable) {
+            return branchesByCallable.computeIfAbsent(callable, c -> new MethodBranches(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
         }
-        return result;
     }
 }
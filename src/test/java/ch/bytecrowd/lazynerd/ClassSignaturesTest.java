@@ -0,0 +1,52 @@
+package ch.bytecrowd.lazynerd;
+
+import com.github.javaparser.ast.Modifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassSignaturesTest {
+
+    @Test
+    void testSignaturesAreReadOncePerClass() {
+        assertThat(ClassSignatures.of(DummyClass.class)).isSameAs(ClassSignatures.of(DummyClass.class));
+    }
+
+    @Test
+    void testConstructorsAndMethods() {
+        var declaration = ClassSignatures.of(Signatures.class);
+
+        assertThat(declaration.getNameAsString()).isEqualTo("Signatures");
+        assertThat(declaration.getConstructors())
+                .extracting(constructor -> constructor.getSignature().asString())
+                .containsExactly("Signatures()", "Signatures(String)");
+        assertThat(declaration.getConstructors().get(1).hasModifier(Modifier.Keyword.PRIVATE)).isTrue();
+        assertThat(declaration.getMethods())
+                .extracting(method -> method.getDeclarationAsString().trim())
+                .containsExactly(
+                        "public int count(long arg0, List<? extends Number> arg1, String... arg2)",
+                        "static Map<String, int[]> index(Object arg0)"
+                );
+        assertThat(declaration.getMethods()).allMatch(method -> method.getBody().isEmpty());
+    }
+
+    static class Signatures {
+
+        Signatures() {
+        }
+
+        private Signatures(String name) {
+        }
+
+        public int count(long limit, List<? extends Number> numbers, String... names) {
+            return 0;
+        }
+
+        static Map<String, int[]> index(Object value) {
+            return Map.of();
+        }
+    }
+}
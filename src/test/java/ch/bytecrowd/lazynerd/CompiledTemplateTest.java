@@ -0,0 +1,124 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.model.Author;
+import ch.bytecrowd.lazynerd.model.Book;
+import ch.bytecrowd.lazynerd.model.Category;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledTemplateTest {
+
+    public static final TemplateFiller TEMPLATE_FILLER = new TemplateFiller();
+
+    /**
+     * The golden outputs in 'src/test/resources/golden' have been rendered by the original engine,
+     * which expanded the loops by regular expressions and substituted the params by the StringSubstitutor
+     */
+    @Test
+    void testCompiledTemplatesAreIdenticalToTheGoldenOutputs() throws IOException {
+        var templates = Arrays.stream(Templates.class.getFields())
+                .filter(field -> Modifier.isStatic(field.getModifiers()))
+                .filter(field -> field.getType() == String.class)
+                .toList();
+        assertThat(templates).isNotEmpty();
+
+        for (var field : templates) {
+            String template = getTemplate(field);
+            var compiledTemplate = TEMPLATE_FILLER.compile(template);
+            for (Class<?> clazz : List.of(Book.class, Author.class, Category.class)) {
+                var golden = golden(field.getName(), clazz);
+                var streamed = new StringBuilder();
+                TEMPLATE_FILLER.fillUpTemplate(template, () -> ParamProvider.paramsFromEntity(clazz), streamed);
+
+                assertThat(compiledTemplate.render(() -> ParamProvider.paramsFromEntity(clazz)))
+                        .as(field.getName() + " for " + clazz.getSimpleName())
+                        .isEqualTo(golden);
+                assertThat(TEMPLATE_FILLER.fillUpTemplate(template, () -> ParamProvider.paramsFromEntity(clazz)))
+                        .as(field.getName() + " for " + clazz.getSimpleName() + " as String")
+                        .isEqualTo(golden);
+                assertThat(streamed.toString())
+                        .as(field.getName() + " for " + clazz.getSimpleName() + " streamed")
+                        .isEqualTo(golden);
+            }
+        }
+    }
+
+    @Test
+    void testCompiledTemplatesAreReused() {
+        var template = "#forEach(dummies)\nname: ${name}\n#end\n";
+
+        assertThat(TEMPLATE_FILLER.compile(template)).isSameAs(new TemplateFiller().compile(template));
+    }
+
+    @Test
+    void testRenderCompiledTemplateWithDifferentParams() {
+        var compiledTemplate = TEMPLATE_FILLER.compile("""
+                title: ${title}
+                #forEach(dummies)
+                name: ${name}, unknown: ${unknown}
+                #end
+                """);
+
+        assertThat(compiledTemplate.render(() -> Map.of(
+                "title", "First",
+                "dummies", List.of(new Item("A"), new Item("B"))
+        ))).isEqualTo("""
+                title: First
+                name: A, unknown: ${unknown}
+                name: B, unknown: ${unknown}
+                """);
+
+        assertThat(compiledTemplate.render(() -> Map.of(
+                "title", "Second",
+                "dummies", List.of()
+        ))).isEqualTo("""
+                title: Second
+
+                """);
+    }
+
+    @Test
+    void testCompileWithUnclosedLoop() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TEMPLATE_FILLER.compile("""
+                #forEach(dummies)
+                name: ${name}
+                """));
+    }
+
+    @Test
+    void testRenderWhenNoCollection() {
+        var compiledTemplate = TEMPLATE_FILLER.compile("""
+                #forEach(title)
+                #end
+                """);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> compiledTemplate.render(() -> Map.of("title", "MyTitle")));
+    }
+
+    private static String golden(String templateName, Class<?> entity) throws IOException {
+        try (var in = CompiledTemplateTest.class.getResourceAsStream("/golden/" + templateName + "/" + entity.getSimpleName() + ".txt")) {
+            assertThat(in).as("golden output of " + templateName + " for " + entity.getSimpleName()).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String getTemplate(java.lang.reflect.Field field) {
+        try {
+            return (String) field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    record Item(String name) {
+    }
+}
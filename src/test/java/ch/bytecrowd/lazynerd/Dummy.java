@@ -0,0 +1,56 @@
+package ch.bytecrowd.lazynerd;
+
+import java.util.List;
+
+class Dummy {
+    private String name;
+    private Integer age;
+    private List<Integer> numbers;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Dummy name(String name) {
+        setName(name);
+        return this;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    public Dummy age(Integer age) {
+        setAge(age);
+        return this;
+    }
+
+    public List<Integer> getNumbers() {
+        return numbers;
+    }
+
+    public void setNumbers(List<Integer> numbers) {
+        this.numbers = numbers;
+    }
+
+    public Dummy numbers(List<Integer> numbers) {
+        setNumbers(numbers);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Dummy{" +
+                "name='" + name + '\'' +
+                ", age=" + age +
+                '}';
+    }
+}
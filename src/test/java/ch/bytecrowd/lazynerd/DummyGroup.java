@@ -0,0 +1,6 @@
+package ch.bytecrowd.lazynerd;
+
+import java.util.List;
+
+record DummyGroup(String title, List<Dummy> dummies) {
+}
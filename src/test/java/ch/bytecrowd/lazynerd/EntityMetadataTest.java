@@ -0,0 +1,42 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.model.Author;
+import ch.bytecrowd.lazynerd.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityMetadataTest {
+
+    @Test
+    void testMetadataIsComputedOncePerClass() {
+        assertThat(EntityMetadata.of(Book.class)).isSameAs(EntityMetadata.of(Book.class));
+        assertThat(ParamProvider.paramsFromEntity(Book.class)).isSameAs(ParamProvider.paramsFromEntity(Book.class));
+        assertThat(EntityMetadata.of(Author.class)).isNotSameAs(EntityMetadata.of(Book.class));
+    }
+
+    @Test
+    void testMetadata() {
+        var metadata = EntityMetadata.of(Book.class);
+
+        assertThat(metadata.getEntityType()).isEqualTo(Book.class);
+        assertThat(metadata.getIdField()).hasValueSatisfying(field -> assertThat(field.getName()).isEqualTo("id"));
+        assertThat(metadata.getIdType()).contains(UUID.class);
+        assertThat(metadata.getBasePackage()).isEqualTo("ch.bytecrowd.lazynerd");
+        assertThat(metadata.getEntityRestResourceName()).isEqualTo("book");
+        assertThat(metadata.getEntityTypeVariableName()).isEqualTo("book");
+        assertThat(metadata.getEntityTypeFields())
+                .extracting(ParamProvider.EntityTypeField::fieldType)
+                .containsExactly("UUID", "String", "List<Author>", "Category");
+    }
+
+    @Test
+    void testMetadataWithoutId() {
+        var metadata = EntityMetadata.of(Author.class);
+
+        assertThat(metadata.getIdField()).isEmpty();
+        assertThat(metadata.getParams().get("idTypeSimpleName")).isEqualTo("Integer");
+    }
+}
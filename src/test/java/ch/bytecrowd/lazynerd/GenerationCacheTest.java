@@ -0,0 +1,152 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.model.Author;
+import ch.bytecrowd.lazynerd.model.Book;
+import ch.bytecrowd.lazynerd.model.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationCacheTest {
+
+    public static final TemplateFiller TEMPLATE_FILLER = new TemplateFiller();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Fails whenever the rendering of the same template and params changes, the cached entries of the previous
+     * rendering would be served otherwise: increase the {@link GenerationCache#CACHE_VERSION} and record both here
+     */
+    @Test
+    void testCacheVersionIsIncreasedWhenTheRenderingChanges() throws IllegalAccessException {
+        var rendering = new StringBuilder();
+        for (var field : Stream.of(Templates.class.getFields()).sorted(Comparator.comparing(Field::getName)).toList()) {
+            if (field.getType() == String.class) {
+                var template = TEMPLATE_FILLER.compile((String) field.get(null));
+                for (Class<?> entity : List.of(Book.class, Author.class, Category.class)) {
+                    rendering.append(template.render(() -> ParamProvider.paramsFromEntity(entity)));
+                }
+            }
+        }
+        Map<String, Object> params = Map.of(
+                "title", "${name} of ${year}",
+                "name", "MyTitle",
+                "year", 2023,
+                "dummies", List.of(new Dummy().name("Is ${name}").numbers(List.of(1, 2))),
+                "empty", List.of()
+        );
+        for (var template : List.of(
+                "title: ${title}, escaped: $${title}, unknown: ${unknown}, default: ${unknown:-none}\n",
+                "#forEach(dummies)\nname: ${name}\n#forEach(numbers)\n  ${name}: ${title}\n#end\n#end\n",
+                "before\n#forEach(empty)\n${name}\n#end  \nafter\n"
+        )) {
+            rendering.append(TEMPLATE_FILLER.compile(template).render(() -> params));
+        }
+
+        assertThat(GenerationCache.CACHE_VERSION + " " + Hashing.sha256(rendering.toString()))
+                .isEqualTo("2 c3ce9e336562277cab202334235e91a4e11550a8eb146b31dcb3e164d46bab80");
+    }
+
+    @Test
+    void testRenderHitAndMiss() throws IOException {
+        var cache = new GenerationCache(tempDir, GenerationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        var template = TEMPLATE_FILLER.compile(Templates.QUARKUS_REST_RESOURCE_IT);
+        var expected = TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REST_RESOURCE_IT, () -> ParamProvider.paramsFromEntity(Book.class));
+
+        assertThat(cache.render(template, Book.class)).isEqualTo(expected);
+        assertThat(cache.render(template, Book.class)).isEqualTo(expected);
+        assertThat(cache.render(template, Author.class)).isNotEqualTo(expected);
+
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testEntriesSurviveAcrossCacheInstances() throws IOException {
+        var template = TEMPLATE_FILLER.compile(Templates.QUARKUS_SERVICE);
+        new GenerationCache(tempDir, GenerationCache.DEFAULT_MAX_SIZE_IN_BYTES).render(template, Book.class);
+
+        var cache = new GenerationCache(tempDir, GenerationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        cache.render(template, Book.class);
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isZero();
+        assertThat(cache.getSizeInBytes()).isPositive();
+    }
+
+    @Test
+    void testKeyDependsOnTemplateAndEntity() {
+        var repository = TEMPLATE_FILLER.compile(Templates.QUARKUS_REPOSITORY);
+        var service = TEMPLATE_FILLER.compile(Templates.QUARKUS_SERVICE);
+
+        assertThat(GenerationCache.key(repository, EntityMetadata.of(Book.class)))
+                .isEqualTo(GenerationCache.key(TEMPLATE_FILLER.compile(Templates.QUARKUS_REPOSITORY), EntityMetadata.of(Book.class)))
+                .isNotEqualTo(GenerationCache.key(service, EntityMetadata.of(Book.class)))
+                .isNotEqualTo(GenerationCache.key(repository, EntityMetadata.of(Author.class)));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+        var template = TEMPLATE_FILLER.compile(Templates.QUARKUS_REPOSITORY);
+        var entrySize = TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REPOSITORY, () -> ParamProvider.paramsFromEntity(Category.class)).length();
+        var cache = new GenerationCache(tempDir, entrySize * 2L);
+
+        for (Class<?> entity : List.of(Book.class, Author.class, Category.class)) {
+            cache.render(template, entity);
+        }
+
+        assertThat(cache.getSizeInBytes()).isLessThanOrEqualTo(entrySize * 2L);
+        try (var entries = Files.list(tempDir)) {
+            assertThat(entries).hasSizeLessThan(3);
+        }
+    }
+
+    @Test
+    void testSizeIsRecomputedBeforeEvicting() throws IOException {
+        var template = TEMPLATE_FILLER.compile(Templates.QUARKUS_REPOSITORY);
+        var bookSize = TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REPOSITORY, () -> ParamProvider.paramsFromEntity(Book.class)).length();
+        var authorSize = TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REPOSITORY, () -> ParamProvider.paramsFromEntity(Author.class)).length();
+        var cache = new GenerationCache(tempDir, bookSize + authorSize);
+
+        cache.render(template, Category.class);
+        // counted, but gone, like an entry which has been counted twice
+        try (var entries = Files.list(tempDir)) {
+            for (var entry : entries.toList()) {
+                Files.delete(entry);
+            }
+        }
+        cache.render(template, Book.class);
+        cache.render(template, Author.class);
+
+        assertThat(cache.getSizeInBytes()).isEqualTo(bookSize + authorSize);
+        try (var entries = Files.list(tempDir)) {
+            assertThat(entries).hasSize(2);
+        }
+    }
+
+    @Test
+    void testGenerateAllWithCache() throws IOException {
+        var cache = new GenerationCache(tempDir.resolve("cache"), GenerationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        var templateFiller = new TemplateFiller(cache);
+        var entities = List.<Class<?>>of(Book.class, Author.class);
+        var templates = List.of(Templates.QUARKUS_REPOSITORY, Templates.QUARKUS_SERVICE);
+
+        templateFiller.generateAll(entities, templates, tempDir.resolve("src"));
+        var summary = templateFiller.generateAll(entities, templates, tempDir.resolve("src"));
+
+        assertThat(summary.unchangedFiles()).hasSize(4);
+        assertThat(cache.getMissCount()).isEqualTo(4);
+        assertThat(cache.getHitCount()).isEqualTo(4);
+    }
+}
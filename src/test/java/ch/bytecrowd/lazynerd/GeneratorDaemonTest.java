@@ -0,0 +1,201 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeneratorDaemonTest {
+
+    @Test
+    void testGenerateThroughTheDaemon(@TempDir Path directory) throws Exception {
+        var book = entity(directory);
+        var socket = directory.resolve("daemon.sock");
+        var daemon = GeneratorDaemon.bind(socket);
+        var served = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        var args = List.of(
+                "generate", "--socket", socket.toString(),
+                "--output", "generated", "--state", "state",
+                "--entity", directory.relativize(book).toString(),
+                "--template", "QUARKUS_REPOSITORY"
+        );
+
+        var out = new ByteArrayOutputStream();
+        assertThat(Main.run(args, directory, new PrintStream(out, true, StandardCharsets.UTF_8))).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .contains("written " + directory.resolve("generated/com/example/repository/BookRepository.java"))
+                .contains("Generated 1 file(s), 0 up to date, 0 deleted");
+        assertThat(directory.resolve("generated/com/example/repository/BookRepository.java"))
+                .content().contains("public class BookRepository implements PanacheRepositoryBase<Book, UUID>");
+
+        out.reset();
+        assertThat(Main.run(args, directory, new PrintStream(out, true, StandardCharsets.UTF_8))).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("Generated 0 file(s), 1 up to date, 0 deleted");
+
+        assertThat(Main.run(List.of("stop", "--socket", socket.toString()), directory, new PrintStream(out))).isZero();
+        served.get();
+        assertThat(socket).doesNotExist();
+    }
+
+    @Test
+    void testGenerateWithoutDaemon(@TempDir Path directory) throws IOException {
+        var book = entity(directory);
+        var out = new ByteArrayOutputStream();
+
+        var exitCode = Main.run(List.of(
+                "generate", "--socket", directory.resolve("none.sock").toString(),
+                "--entity", book.toString(),
+                "--template", "QUARKUS_SERVICE"
+        ), directory, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        assertThat(exitCode).isZero();
+        assertThat(directory.resolve("target/generated-sources/lazy-nerd/com/example/service/BookService.java")).exists();
+        assertThat(directory.resolve("target/lazy-nerd/generation-state")).exists();
+    }
+
+    @Test
+    void testOnlyOneDaemonPerSocket(@TempDir Path directory) throws IOException {
+        var socket = directory.resolve("daemon.sock");
+        try (var ignored = GeneratorDaemon.bind(socket)) {
+            assertThatThrownBy(() -> GeneratorDaemon.bind(socket))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageStartingWith("a daemon is already listening on");
+        }
+    }
+
+    @Test
+    void testGenerateFallsBackToThisJvmIfTheSocketIsLeftOver(@TempDir Path directory) throws IOException {
+        var book = entity(directory);
+        var socket = leftOverSocket(directory.resolve("killed.sock"));
+        var out = new ByteArrayOutputStream();
+
+        var exitCode = Main.run(List.of(
+                "generate", "--socket", socket.toString(),
+                "--entity", book.toString(),
+                "--template", "QUARKUS_REPOSITORY"
+        ), directory, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        assertThat(exitCode).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("Generated 1 file(s), 0 up to date, 0 deleted");
+        assertThat(directory.resolve("target/generated-sources/lazy-nerd/com/example/repository/BookRepository.java")).exists();
+    }
+
+    @Test
+    void testLeftOverSocketIsReplaced(@TempDir Path directory) throws IOException {
+        var socket = leftOverSocket(directory.resolve("killed.sock"));
+
+        try (var daemon = GeneratorDaemon.bind(socket)) {
+            assertThat(daemon.getSocket()).isEqualTo(socket);
+        }
+    }
+
+    @Test
+    void testOtherFilesAreNotReplaced(@TempDir Path directory) throws IOException {
+        var file = Files.writeString(directory.resolve("notasocket.txt"), "keep me");
+
+        assertThatThrownBy(() -> GeneratorDaemon.bind(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageEndingWith("exists and is not a socket");
+        assertThat(file).hasContent("keep me");
+    }
+
+    @Test
+    void testOnlyInvalidRequestsAreUsageErrors(@TempDir Path directory) throws Exception {
+        var book = entity(directory);
+        Files.writeString(book, Files.readString(book).replace("import java.util.UUID;", "import com.example.money.*;"));
+        var socket = directory.resolve("daemon.sock");
+        var daemon = GeneratorDaemon.bind(socket);
+        var served = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        var out = new ByteArrayOutputStream();
+
+        assertThat(GeneratorClient.send(socket, List.of("generate", "--entity", book.toString()), new PrintStream(out, true, StandardCharsets.UTF_8)))
+                .isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("at least one --entity and one --template are required");
+
+        out.reset();
+        var args = List.of(
+                "generate", "--socket", socket.toString(),
+                "--output", "generated", "--state", "state",
+                "--entity", directory.relativize(book).toString(),
+                "--template", "QUARKUS_REPOSITORY"
+        );
+        assertThat(Main.run(args, directory, new PrintStream(out, true, StandardCharsets.UTF_8))).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("UUID can not be resolved, it may be imported by com.example.money");
+
+        out.reset();
+        var invalidTemplatePath = List.of(
+                "generate", "--output", directory.resolve("generated").toString(), "--state", directory.resolve("state").toString(),
+                "--entity", book.toString(), "--template", "invalid\0.template"
+        );
+        assertThat(GeneratorClient.send(socket, invalidTemplatePath, new PrintStream(out, true, StandardCharsets.UTF_8))).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("could not generate the sources");
+
+        assertThat(Main.run(List.of("stop", "--socket", socket.toString()), directory, new PrintStream(out))).isZero();
+        served.get();
+    }
+
+    @Test
+    void testInvalidRequest() {
+        assertThatThrownBy(() -> GenerateRequest.parse(List.of("--entity", "Book.java")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("at least one --entity and one --template are required");
+        assertThatThrownBy(() -> GenerateRequest.parse(List.of("--entity")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("--entity requires a value");
+    }
+
+    /**
+     * @return a socket file without a listening daemon, as left over by a killed daemon
+     */
+    private static Path leftOverSocket(Path socket) throws IOException {
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+        }
+        assertThat(socket).exists();
+        return socket;
+    }
+
+    private static Path entity(Path directory) throws IOException {
+        var source = directory.resolve("src/com/example/model/Book.java");
+        Files.createDirectories(source.getParent());
+        return Files.writeString(source, """
+                package com.example.model;
+
+                import javax.persistence.Id;
+                import java.util.UUID;
+
+                public class Book {
+
+                    @Id
+                    private UUID id;
+
+                    private String title;
+                }
+                """);
+    }
+}
@@ -0,0 +1,157 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalGenerationTest {
+
+    private static final String REPOSITORY = """
+            package ${basePackage}.repository;
+
+            public class ${entityTypeSimpleName}Repository {
+            }
+            """;
+    private static final String SERVICE = """
+            package ${basePackage}.service;
+
+            public interface ${entityTypeSimpleName}Service {
+            #forEach(entityTypeFields)
+                ${fieldType} ${fieldName}();
+            #end
+            }
+            """;
+    private static final String ID = """
+            package ${basePackage}.id;
+
+            public class ${entityTypeSimpleName}Id {
+                private ${idTypeCanonicalName} value;
+            }
+            """;
+
+    @Test
+    void testOnlyStalePairsAreGenerated(@TempDir Path directory) throws IOException {
+        var book = entity(directory, "Book", "private String title;");
+        var author = entity(directory, "Author", "private String name;");
+        var output = directory.resolve("generated");
+        var generation = new IncrementalGeneration(directory.resolve("state"), output);
+        var templates = Map.of("REPOSITORY", REPOSITORY, "SERVICE", SERVICE);
+
+        var first = generation.run(List.of(book, author), templates, Runnable::run);
+
+        assertThat(first.isSuccessful()).isTrue();
+        assertThat(first.writtenFiles()).containsExactlyInAnyOrder(
+                output.resolve("com/example/repository/BookRepository.java"),
+                output.resolve("com/example/service/BookService.java"),
+                output.resolve("com/example/repository/AuthorRepository.java"),
+                output.resolve("com/example/service/AuthorService.java")
+        );
+
+        var unchanged = generation.run(List.of(book, author), templates, Runnable::run);
+
+        assertThat(unchanged.writtenFiles()).isEmpty();
+        assertThat(unchanged.upToDateFiles()).hasSize(4);
+
+        entity(directory, "Book", "private String title;\n    private Integer pages;");
+        var changed = generation.run(List.of(book, author), templates, Runnable::run);
+
+        assertThat(changed.writtenFiles()).containsExactly(output.resolve("com/example/service/BookService.java"));
+        assertThat(changed.upToDateFiles()).hasSize(3);
+        assertThat(output.resolve("com/example/service/BookService.java")).content().contains("Integer pages();");
+    }
+
+    @Test
+    void testChangedTemplateIsCompiledAgain(@TempDir Path directory) throws IOException {
+        var book = entity(directory, "Book", "private String title;");
+        var output = directory.resolve("generated");
+        var generation = new IncrementalGeneration(directory.resolve("state"), output);
+        generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY), Runnable::run);
+
+        var result = generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY.replace("{\n}", "{\n    // changed\n}")), Runnable::run);
+
+        assertThat(result.writtenFiles()).containsExactly(output.resolve("com/example/repository/BookRepository.java"));
+        assertThat(output.resolve("com/example/repository/BookRepository.java")).content().contains("// changed");
+    }
+
+    @Test
+    void testOutputsOfRemovedPairsAreDeleted(@TempDir Path directory) throws IOException {
+        var book = entity(directory, "Book", "private String title;");
+        var output = directory.resolve("generated");
+        var generation = new IncrementalGeneration(directory.resolve("state"), output);
+        generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY, "SERVICE", SERVICE), Runnable::run);
+
+        var result = generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY), Runnable::run);
+
+        assertThat(result.deletedFiles()).containsExactly(output.resolve("com/example/service/BookService.java"));
+        assertThat(output.resolve("com/example/service/BookService.java")).doesNotExist();
+        assertThat(output.resolve("com/example/repository/BookRepository.java")).exists();
+    }
+
+    @Test
+    void testMissingOutputsAreGeneratedAgain(@TempDir Path directory) throws IOException {
+        var book = entity(directory, "Book", "private String title;");
+        var output = directory.resolve("generated");
+        var generation = new IncrementalGeneration(directory.resolve("state"), output);
+        generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY), Runnable::run);
+        Files.delete(output.resolve("com/example/repository/BookRepository.java"));
+
+        var result = generation.run(List.of(book), Map.of("REPOSITORY", REPOSITORY), Runnable::run);
+
+        assertThat(result.writtenFiles()).containsExactly(output.resolve("com/example/repository/BookRepository.java"));
+    }
+
+    @Test
+    void testAddedAndRemovedTypesOfTheSourceTreeAreGeneratedAgain(@TempDir Path directory) throws IOException {
+        var book = entity(directory, "Book", "@javax.persistence.Id\n    private Money id;");
+        var output = directory.resolve("generated");
+        var generation = new IncrementalGeneration(directory.resolve("state"), output);
+        var templates = Map.of("REPOSITORY", REPOSITORY, "ID", ID);
+        var id = output.resolve("com/example/id/BookId.java");
+
+        generation.run(List.of(book), templates, Runnable::run);
+
+        assertThat(id).content().contains("com.example.model.Money value;");
+
+        var money = Files.createDirectories(directory.resolve("src/com/example/money")).resolve("Money.java");
+        Files.writeString(money, "package com.example.money;\n\npublic class Money {\n}\n");
+        Files.writeString(book, Files.readString(book).replace("package com.example.model;", "package com.example.model;\n\nimport com.example.money.*;"));
+        generation.run(List.of(book), templates, Runnable::run);
+
+        assertThat(id).content().contains("com.example.money.Money value;");
+
+        var sameMoney = directory.resolve("src/com/example/model/Money.java");
+        Files.writeString(sameMoney, "package com.example.model;\n\npublic class Money {\n}\n");
+        var added = generation.run(List.of(book), templates, Runnable::run);
+
+        assertThat(added.writtenFiles()).containsExactly(id);
+        assertThat(added.upToDateFiles()).containsExactly(output.resolve("com/example/repository/BookRepository.java"));
+        assertThat(id).content().contains("com.example.model.Money value;");
+
+        Files.delete(sameMoney);
+        var removed = generation.run(List.of(book), templates, Runnable::run);
+
+        assertThat(removed.writtenFiles()).containsExactly(id);
+        assertThat(id).content().contains("com.example.money.Money value;");
+        assertThat(generation.run(List.of(book), templates, Runnable::run).writtenFiles()).isEmpty();
+    }
+
+    private static Path entity(Path directory, String name, String fields) throws IOException {
+        var source = directory.resolve("src/com/example/model/" + name + ".java");
+        Files.createDirectories(source.getParent());
+        return Files.writeString(source, """
+                package com.example.model;
+
+                public class %s {
+
+                    %s
+                }
+                """.formatted(name, fields));
+    }
+}
@@ -0,0 +1,21 @@
+package ch.bytecrowd.lazynerd;
+
+public class OverloadedDummyClass {
+
+    public OverloadedDummyClass() {
+        if (System.getenv("DUMMY") != null) {
+            System.out.println("constructor branch");
+        }
+    }
+
+    String check(int n) {
+        if (n > 0) {
+            return "positive";
+        }
+        return "negative";
+    }
+
+    String check(String s) {
+        return s.isEmpty() ? "empty" : s;
+    }
+}
@@ -0,0 +1,95 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParseIsCachedUntilTheFileChanges() throws IOException {
+        var cache = new ParseCache(ParseCache.DEFAULT_MAX_SOURCE_SIZE_IN_BYTES);
+        var file = tempDir.resolve("A.java");
+        Files.writeString(file, "class A {}");
+
+        var first = cache.parse(file);
+        var second = cache.parse(file);
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+
+        Files.writeString(file, "class A { int a; }");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        var changed = cache.parse(file);
+        assertThat(changed).isNotSameAs(first);
+        assertThat(changed.toString()).contains("int a;");
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testLeastRecentlyUsedFilesAreEvicted() throws IOException {
+        var source = "class A {}";
+        var cache = new ParseCache(source.length() * 2L);
+        var a = Files.writeString(tempDir.resolve("A.java"), source);
+        var b = Files.writeString(tempDir.resolve("B.java"), source.replace('A', 'B'));
+        var c = Files.writeString(tempDir.resolve("C.java"), source.replace('A', 'C'));
+
+        cache.parse(a);
+        cache.parse(b);
+        cache.parse(a);
+        cache.parse(c);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.parse(a);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        cache.parse(b);
+        assertThat(cache.getMissCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testEntriesAreBoundedByTheirNumber() throws IOException {
+        var cache = new ParseCache(ParseCache.DEFAULT_MAX_SOURCE_SIZE_IN_BYTES, 2);
+        for (var name : List.of("A", "B", "C")) {
+            cache.parse(Files.writeString(tempDir.resolve(name + ".java"), "class " + name + " {}"));
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testEveryCallerGetsItsOwnCopy() throws IOException {
+        var cache = new ParseCache(ParseCache.DEFAULT_MAX_SOURCE_SIZE_IN_BYTES);
+        var file = Files.writeString(tempDir.resolve("A.java"), "class A {}");
+
+        cache.parse(file).getClassByName("A").orElseThrow().addField("int", "a");
+
+        assertThat(cache.parse(file).toString()).doesNotContain("int a;");
+    }
+
+    @Test
+    void testUnitTestGeneratorReusesParsedFile() {
+        var cache = new ParseCache(ParseCache.DEFAULT_MAX_SOURCE_SIZE_IN_BYTES);
+        var builder = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath("src/test/java")
+                .parseCache(cache);
+
+        var all = builder.build().generate();
+        var wierdMethodOnly = builder.methodRegex("wierd.*").build().generate();
+
+        assertThat(wierdMethodOnly).isEqualTo(all);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,112 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PermutationStrategyTest {
+
+    @Test
+    void testExhaustiveKeepsTheOrderOfTheBits() {
+        var combinations = PermutationStrategy.exhaustive().combinations(2).toList();
+
+        assertThat(combinations).containsExactly(
+                new boolean[]{false, false},
+                new boolean[]{true, false},
+                new boolean[]{false, true},
+                new boolean[]{true, true}
+        );
+        assertThat(PermutationStrategy.exhaustive().combinations(0).toList()).containsExactly(new boolean[0]);
+    }
+
+    @Test
+    void testPairwiseCoversAllPairs() {
+        for (int n = 0; n <= 40; n++) {
+            var combinations = PermutationStrategy.pairwise().combinations(n).toList();
+            assertCovered(combinations, n, 2);
+        }
+        assertThat(PermutationStrategy.pairwise().combinations(10).count()).isEqualTo(6);
+        assertThat(PermutationStrategy.pairwise().combinations(40).count()).isEqualTo(9);
+    }
+
+    @Test
+    void testNWiseCoversAllCombinationsOfItsStrength() {
+        for (int n = 0; n <= 12; n++) {
+            assertCovered(PermutationStrategy.nWise(3).combinations(n).toList(), n, 3);
+        }
+        var combinations = PermutationStrategy.nWise(3).combinations(20).toList();
+        assertCovered(combinations, 20, 3);
+        assertThat(combinations).hasSizeLessThan(40);
+        assertThat(PermutationStrategy.nWise(1).combinations(20).count()).isEqualTo(2);
+    }
+
+    @Test
+    void testStrategiesHaveStableNames() {
+        assertThat(PermutationStrategy.exhaustive()).hasToString("exhaustive");
+        assertThat(PermutationStrategy.nWise(2)).hasToString("pairwise");
+        assertThat(PermutationStrategy.nWise(3)).hasToString("nWise(3)");
+        assertThat(PermutationStrategy.capped(10)).hasToString("capped(10)");
+    }
+
+    @Test
+    void testNWiseRejectsUnsupportedStrength() {
+        assertThatThrownBy(() -> PermutationStrategy.nWise(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PermutationStrategy.nWise(7)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNWiseRejectsTooManyInteractions() {
+        assertThat(PermutationStrategy.nWise(3).combinations(64).findFirst()).isPresent();
+        assertThatThrownBy(() -> PermutationStrategy.nWise(6).combinations(64))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("74974368 combinations of 6");
+    }
+
+    @Test
+    void testCappedIsDeterministicAndDistinct() {
+        var strategy = PermutationStrategy.capped(16);
+
+        var combinations = strategy.combinations(100).toList();
+
+        assertThat(combinations).hasSize(16);
+        assertThat(combinations.get(0)).doesNotContain(true);
+        assertThat(combinations.get(1)).doesNotContain(false);
+        assertThat(combinations.stream().map(Arrays::toString).distinct()).hasSize(16);
+        assertThat(strategy.combinations(100).map(Arrays::toString).toList())
+                .isEqualTo(combinations.stream().map(Arrays::toString).toList());
+        assertThat(strategy.combinations(3).toList())
+                .hasSize(8)
+                .containsExactlyElementsOf(PermutationStrategy.exhaustive().combinations(3).toList());
+    }
+
+    private static void assertCovered(List<boolean[]> combinations, int n, int strength) {
+        if (n < strength) {
+            assertThat(combinations).hasSize(1 << n);
+            return;
+        }
+        forEachSubset(n, strength, new int[strength], 0, 0, columns -> {
+            var values = combinations.stream()
+                    .mapToInt(combination -> IntStream.range(0, strength).map(i -> combination[columns[i]] ? 1 << i : 0).sum())
+                    .distinct()
+                    .count();
+            assertThat(values).as("columns %s of %d", Arrays.toString(columns), n).isEqualTo(1 << strength);
+        });
+    }
+
+    private static void forEachSubset(int n, int size, int[] subset, int index, int start, Consumer<int[]> consumer) {
+        if (index == size) {
+            consumer.accept(subset);
+            return;
+        }
+        for (int i = start; i < n; i++) {
+            subset[index] = i;
+            forEachSubset(n, size, subset, index + 1, i + 1, consumer);
+        }
+    }
+}
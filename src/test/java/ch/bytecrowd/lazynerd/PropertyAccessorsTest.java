@@ -0,0 +1,51 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyAccessorsTest {
+
+    @Test
+    void testAccessorsAreResolvedOncePerClass() {
+        assertThat(PropertyAccessors.of(Dummy.class)).isSameAs(PropertyAccessors.of(Dummy.class));
+    }
+
+    @Test
+    void testGetFieldOfClass() {
+        var dummy = new Dummy().name("A").age(42);
+        var accessors = PropertyAccessors.of(Dummy.class);
+
+        assertThat(accessors.get(dummy, "name")).isEqualTo("A");
+        assertThat(accessors.get(dummy, "age")).isEqualTo(42);
+        assertThat(accessors.get(dummy, "numbers")).isNull();
+        assertThat(accessors.get(dummy, "unknown")).isNull();
+    }
+
+    @Test
+    void testGetComponentOfRecord() {
+        var group = new DummyGroup("First", List.of());
+        var accessors = PropertyAccessors.of(DummyGroup.class);
+
+        assertThat(accessors.get(group, "title")).isEqualTo("First");
+        assertThat(accessors.get(group, "dummies")).isEqualTo(List.of());
+    }
+
+    @Test
+    void testBind() {
+        var getters = PropertyAccessors.of(Dummy.class).bind(List.of("age", "unknown", "name"));
+        var dummy = new Dummy().name("A").age(42);
+
+        assertThat(getters).hasSize(3);
+        assertThat(PropertyAccessors.invoke(getters[0], dummy)).isEqualTo(42);
+        assertThat(getters[1]).isNull();
+        assertThat(PropertyAccessors.invoke(getters[2], dummy)).isEqualTo("A");
+    }
+
+    @Test
+    void testInaccessibleFieldsAreLeftOut() {
+        assertThat(PropertyAccessors.of(String.class).get("A", "value")).isNull();
+    }
+}
@@ -0,0 +1,201 @@
+package ch.bytecrowd.lazynerd;
+
+import ch.bytecrowd.lazynerd.ParamProvider.EntityTypeField;
+import ch.bytecrowd.lazynerd.model.Author;
+import ch.bytecrowd.lazynerd.model.Book;
+import ch.bytecrowd.lazynerd.model.Category;
+import ch.bytecrowd.lazynerd.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SourceEntityMetadataTest {
+
+    private static final Path MODEL = Path.of("src/test/java/ch/bytecrowd/lazynerd/model");
+
+    @Test
+    void testSameParamsAsTheLoadedClass() {
+        var metadata = SourceEntityMetadata.ofAll(List.of(
+                MODEL.resolve("Book.java"),
+                MODEL.resolve("Author.java"),
+                MODEL.resolve("Category.java")
+        ));
+
+        assertThat(metadata)
+                .extracting(SourceEntityMetadata::getParams)
+                .containsExactly(
+                        EntityMetadata.of(Book.class).getParams(),
+                        EntityMetadata.of(Author.class).getParams(),
+                        EntityMetadata.of(Category.class).getParams()
+                );
+        assertThat(metadata)
+                .extracting(SourceEntityMetadata::getFingerprint)
+                .containsExactly(
+                        EntityMetadata.of(Book.class).getFingerprint(),
+                        EntityMetadata.of(Author.class).getFingerprint(),
+                        EntityMetadata.of(Category.class).getFingerprint()
+                );
+    }
+
+    @Test
+    void testSameParamsAsTheLoadedClassWithOnDemandImportsAndNestedTypes() {
+        var metadata = SourceEntityMetadata.of(MODEL.resolve("Order.java"));
+
+        assertThat(metadata.getParams()).isEqualTo(EntityMetadata.of(Order.class).getParams());
+        assertThat(metadata.getFingerprint()).isEqualTo(EntityMetadata.of(Order.class).getFingerprint());
+        assertThat(metadata.getParams())
+                .containsEntry("idTypeCanonicalName", "ch.bytecrowd.lazynerd.model.Order$Key");
+        assertThat(metadata.getFields())
+                .filteredOn(field -> field.name().equals("reference"))
+                .extracting(SourceEntityMetadata.SourceField::typeCanonicalName)
+                .containsExactly("java.util.UUID");
+        assertThat(metadata.getFields())
+                .filteredOn(SourceEntityMetadata.SourceField::isManyToOne)
+                .extracting(SourceEntityMetadata.SourceField::typeCanonicalName)
+                .containsExactly("ch.bytecrowd.lazynerd.model.Author");
+    }
+
+    @Test
+    void testAmbiguousAndUnresolvableIdsAndRelationsFail(@TempDir Path directory) throws IOException {
+        var ambiguous = write(directory, "Basket", """
+                package com.example.shop.model;
+
+                import javax.persistence.*;
+                import java.awt.*;
+                import java.util.*;
+
+                public class Basket {
+
+                    @OneToMany
+                    private List items;
+                }
+                """);
+        var unresolvable = write(directory, "Price", """
+                package com.example.shop.model;
+
+                import javax.persistence.Id;
+                import com.acme.money.*;
+
+                public class Price {
+
+                    @Id
+                    private Money amount;
+                }
+                """);
+
+        assertThatThrownBy(() -> SourceEntityMetadata.of(ambiguous))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("List is ambiguous, it is imported by java.awt, java.util");
+        assertThatThrownBy(() -> SourceEntityMetadata.of(unresolvable))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Money can not be resolved, it may be imported by com.acme.money");
+    }
+
+    @Test
+    void testUnresolvableTypesOfOtherFieldsAreKeptAsWritten(@TempDir Path directory) throws IOException {
+        var source = write(directory, "Appointment", """
+                package com.example.shop.model;
+
+                import javax.persistence.Id;
+                import java.util.*;
+                import org.joda.time.*;
+
+                public class Appointment {
+
+                    @Id
+                    private UUID id;
+                    private DateTime created;
+                    private List<Interval> slots;
+                }
+                """);
+
+        var metadata = SourceEntityMetadata.of(source);
+
+        assertThat(metadata.getIdField()).hasValueSatisfying(field -> assertThat(field.typeCanonicalName()).isEqualTo("java.util.UUID"));
+        assertThat(metadata.getFields())
+                .extracting(SourceEntityMetadata.SourceField::typeCanonicalName, SourceEntityMetadata.SourceField::genericTypeCanonicalName)
+                .containsExactly(tuple("java.util.UUID", ""), tuple("DateTime", ""), tuple("java.util.List", "Interval"));
+        assertThat(metadata.getEntityTypeFields())
+                .extracting(EntityTypeField::fieldType)
+                .containsExactly("UUID", "DateTime", "List<Interval>");
+    }
+
+    @Test
+    void testRelations() {
+        var metadata = SourceEntityMetadata.of(MODEL.resolve("Book.java"));
+
+        assertThat(metadata.getEntityTypeCanonicalName()).isEqualTo("ch.bytecrowd.lazynerd.model.Book");
+        assertThat(metadata.getIdField()).hasValueSatisfying(field -> {
+            assertThat(field.name()).isEqualTo("id");
+            assertThat(field.typeCanonicalName()).isEqualTo("java.util.UUID");
+        });
+        assertThat(metadata.getFields())
+                .filteredOn(SourceEntityMetadata.SourceField::isOneToMany)
+                .singleElement()
+                .satisfies(field -> assertThat(field.genericTypeCanonicalName()).isEqualTo("ch.bytecrowd.lazynerd.model.Author"));
+        assertThat(metadata.getFields())
+                .filteredOn(SourceEntityMetadata.SourceField::isManyToOne)
+                .extracting(SourceEntityMetadata.SourceField::name)
+                .containsExactly("category");
+    }
+
+    @Test
+    void testTypesAreResolvedWithoutLoadingThem(@TempDir Path directory) throws IOException {
+        write(directory, "InvoiceLine", """
+                package com.example.shop.model;
+
+                public class InvoiceLine {
+                }
+                """);
+        var source = write(directory, "Invoice", """
+                package com.example.shop.model;
+
+                import javax.persistence.*;
+                import java.util.Map;
+                import java.util.Set;
+
+                public class Invoice {
+
+                    @Id
+                    private long id;
+
+                    private int[] lines, totals;
+
+                    @OneToMany
+                    private Set<InvoiceLine> invoiceLines;
+
+                    private Map<String, Set<Long>> tags;
+                }
+                """);
+
+        var metadata = SourceEntityMetadata.of(source);
+
+        assertThat(metadata.getParams())
+                .containsEntry("basePackage", "com.example.shop")
+                .containsEntry("entityTypeCanonicalName", "com.example.shop.model.Invoice")
+                .containsEntry("entityRestResourceName", "invoice")
+                .containsEntry("idTypeSimpleName", "long")
+                .containsEntry("idTypeCanonicalName", "long");
+        assertThat(metadata.getEntityTypeFields())
+                .extracting(ParamProvider.EntityTypeField::fieldType)
+                .containsExactly("long", "int[]", "int[]", "Set<InvoiceLine>", "Map<String>");
+        assertThat(metadata.getFields())
+                .filteredOn(SourceEntityMetadata.SourceField::isOneToMany)
+                .extracting(SourceEntityMetadata.SourceField::genericTypeCanonicalName)
+                .containsExactly("com.example.shop.model.InvoiceLine");
+    }
+
+    private static Path write(Path directory, String name, String source) throws IOException {
+        var file = directory.resolve("com/example/shop/model/" + name + ".java");
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, source);
+    }
+}
@@ -0,0 +1,111 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteIfChanged() throws IOException {
+        var path = tempDir.resolve("ch/bytecrowd/Generated.java");
+
+        assertThat(SourceFileWriter.write(path, "class Generated {}", SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.CREATED);
+
+        var lastModified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(path, lastModified);
+        assertThat(SourceFileWriter.write(path, "class Generated {}", SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.UNCHANGED);
+        assertThat(Files.getLastModifiedTime(path)).isEqualTo(lastModified);
+
+        assertThat(SourceFileWriter.write(path, "class Generated { }", SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.WRITTEN);
+        assertThat(Files.readString(path)).isEqualTo("class Generated { }");
+    }
+
+    @Test
+    void testPermissionsAreKeptByRewrites() throws IOException {
+        Assumptions.assumeTrue(Files.getFileAttributeView(tempDir, PosixFileAttributeView.class) != null);
+        var path = tempDir.resolve("Generated.java");
+        var streamed = tempDir.resolve("Streamed.java");
+
+        SourceFileWriter.write(path, "class Generated {}", SourceFileWriter.Mode.ALWAYS);
+        SourceFileWriter.write(streamed, out -> out.write("class Streamed {}"), SourceFileWriter.Mode.ALWAYS);
+        assertThat(Files.getPosixFilePermissions(path)).isEqualTo(PosixFilePermissions.fromString("rw-r--r--"));
+        assertThat(Files.getPosixFilePermissions(streamed)).isEqualTo(PosixFilePermissions.fromString("rw-r--r--"));
+
+        Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-rw-r--"));
+        Files.setPosixFilePermissions(streamed, PosixFilePermissions.fromString("rwxr-x---"));
+        SourceFileWriter.write(path, "class Generated { }", SourceFileWriter.Mode.ALWAYS);
+        SourceFileWriter.write(streamed, out -> out.write("class Streamed { }"), SourceFileWriter.Mode.ALWAYS);
+
+        assertThat(path).hasContent("class Generated { }");
+        assertThat(Files.getPosixFilePermissions(path)).isEqualTo(PosixFilePermissions.fromString("rw-rw-r--"));
+        assertThat(Files.getPosixFilePermissions(streamed)).isEqualTo(PosixFilePermissions.fromString("rwxr-x---"));
+    }
+
+    @Test
+    void testWriteAlways() throws IOException {
+        var path = tempDir.resolve("Generated.java");
+        Files.writeString(path, "class Generated {}");
+
+        assertThat(SourceFileWriter.write(path, "class Generated {}", SourceFileWriter.Mode.ALWAYS))
+                .isEqualTo(SourceFileWriter.Result.WRITTEN);
+    }
+
+    @Test
+    void testShorterContentDoesNotLeaveStaleBytes() throws IOException {
+        var path = tempDir.resolve("Generated.java");
+        Files.writeString(path, "class Generated { int a; int b; }");
+
+        SourceFileWriter.write(path, "class Generated {}", SourceFileWriter.Mode.IF_CHANGED);
+
+        assertThat(Files.readString(path)).isEqualTo("class Generated {}");
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+
+    @Test
+    void testHasContentWithSameSize() throws IOException {
+        var path = tempDir.resolve("Generated.java");
+        Files.writeString(path, "a".repeat(20_000) + "b");
+
+        assertThat(SourceFileWriter.hasContent(path, ("a".repeat(20_000) + "b").getBytes())).isTrue();
+        assertThat(SourceFileWriter.hasContent(path, ("a".repeat(20_000) + "c").getBytes())).isFalse();
+    }
+
+    @Test
+    void testWriteStreamedContentIfChanged() throws IOException {
+        var path = tempDir.resolve("ch/bytecrowd/Generated.java");
+
+        assertThat(SourceFileWriter.write(path, out -> out.write("class Generated {}"), SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.CREATED);
+
+        var lastModified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(path, lastModified);
+        assertThat(SourceFileWriter.write(path, out -> out.write("class Generated {}"), SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.UNCHANGED);
+        assertThat(Files.getLastModifiedTime(path)).isEqualTo(lastModified);
+
+        assertThat(SourceFileWriter.write(path, out -> out.write("class Generated { }"), SourceFileWriter.Mode.IF_CHANGED))
+                .isEqualTo(SourceFileWriter.Result.WRITTEN);
+        assertThat(Files.readString(path)).isEqualTo("class Generated { }");
+        try (var files = Files.list(path.getParent())) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package ch.bytecrowd.lazynerd;
 
+import ch.bytecrowd.lazynerd.model.Author;
 import ch.bytecrowd.lazynerd.model.Book;
+import ch.bytecrowd.lazynerd.model.Category;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.linesOf;
@@ -100,32 +105,105 @@ class TemplateFillerTest {
 
     @Test
     void testTemplateGenerationWithNestedForLoop() {
-
-        var random = new SecureRandom();
-        var dummies = List.of(
-                new Dummy().name(UUID.randomUUID().toString()).age(random.nextInt()),
-                new Dummy().name(UUID.randomUUID().toString()).age(random.nextInt()),
-                new Dummy().name(UUID.randomUUID().toString()).age(random.nextInt()),
-                new Dummy().name(UUID.randomUUID().toString()).age(random.nextInt())
+        var groups = List.of(
+                new DummyGroup("First", List.of(new Dummy().name("A").age(1), new Dummy().name("B").age(2))),
+                new DummyGroup("Second", List.of()),
+                new DummyGroup("Third", List.of(new Dummy().name("C").age(3)))
         );
         Map<String, Object> params = Map.of(
-                "dummies",
-                dummies,
-                "title", "MyTitle",
-                "dummy", new Dummy().name(UUID.randomUUID().toString()).age(random.nextInt())
+                "groups", groups,
+                "title", "MyTitle"
         );
 
-
         String template = """
+                ${title}
+                #forEach(groups)
+                group: ${title}
                 #forEach(dummies)
-                name: ${name}
-                    #forEach(dummies)
-                    age: ${age}
-                    #end
+                name: ${name}, age: ${age}, group: ${title}
+                #end
                 #end
                 """;
+        String generated = new TemplateFiller().fillUpTemplate(template, () -> params);
+        assertThat(generated).isEqualTo("""
+                MyTitle
+                group: First
+                name: A, age: 1, group: First
+                name: B, age: 2, group: First
+                group: Second
 
-        Assertions.assertThrows(IllegalArgumentException.class, () -> new TemplateFiller().fillUpTemplate(template, () -> params));
+                group: Third
+                name: C, age: 3, group: Third
+                """);
+    }
+
+    @Test
+    void testTemplateGenerationWithLargeLoopBody() {
+        var body = "${name}".repeat(10_000) + "\n" + "x".repeat(100_000);
+        Map<String, Object> params = Map.of(
+                "dummies", List.of(new Dummy().name("A"), new Dummy().name("B"))
+        );
+
+        String generated = new TemplateFiller().fillUpTemplate("#forEach(dummies)\n" + body + "\n#end\n", () -> params);
+
+        var expected = "A".repeat(10_000) + "\n" + "x".repeat(100_000) + "\n";
+        assertThat(generated).isEqualTo(expected + expected.replace('A', 'B'));
+    }
+
+    @Test
+    void testParamsAreProvidedOncePerRender() {
+        var invocations = new AtomicInteger();
+        ParamProvider paramProvider = () -> {
+            invocations.incrementAndGet();
+            return ParamProvider.paramsFromEntity(Book.class);
+        };
+
+        TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REST_RESOURCE_IT, paramProvider);
+        assertThat(invocations).hasValue(1);
+
+        TEMPLATE_FILLER.compile(Templates.QUARKUS_REST_RESOURCE_IT).render(paramProvider);
+        assertThat(invocations).hasValue(2);
+    }
+
+    @Test
+    void testTemplateGenerationToAppendable() throws IOException {
+        var writer = new StringWriter();
+        TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REST_RESOURCE_IT, () -> ParamProvider.paramsFromEntity(Book.class), writer);
+        assertThat(writer.toString()).isEqualTo(generateRestControllerIT(Book.class));
+
+        var builder = new StringBuilder("// generated\n");
+        TEMPLATE_FILLER.fillUpTemplate(Templates.QUARKUS_REPOSITORY, () -> ParamProvider.paramsFromEntity(Book.class), builder);
+        assertThat(builder.toString()).isEqualTo("// generated\n" + generateRepository(Book.class));
+    }
+
+    @Test
+    void testTemplateGenerationToAppendableSubstitutesLikeTheStringOverload() throws IOException {
+        Map<String, Object> params = Map.of(
+                "title", "${name} of ${year}",
+                "name", "MyTitle",
+                "year", 2023,
+                "dummies", List.of(new Dummy().name("Is ${name}"))
+        );
+        var templates = List.of(
+                "title: ${title}, escaped: $${title}, unknown: ${unknown}\n",
+                "title: ${title}, default: ${unknown:-none}\n",
+                "#forEach(dummies)\nname: ${name}, title: ${title}\n#end\n"
+        );
+
+        for (var template : templates) {
+            var expected = TEMPLATE_FILLER.fillUpTemplate(template, () -> params);
+            var streamed = new StringBuilder();
+            TEMPLATE_FILLER.fillUpTemplate(template, () -> params, streamed);
+            var compiled = new StringBuilder();
+            TEMPLATE_FILLER.fillUpTemplate(TEMPLATE_FILLER.compile(template), () -> params, compiled);
+
+            assertThat(streamed.toString()).as(template).isEqualTo(expected);
+            assertThat(compiled.toString()).as(template).isEqualTo(expected);
+        }
+        assertThat(TEMPLATE_FILLER.fillUpTemplate(templates.get(0), () -> params))
+                .isEqualTo("title: MyTitle of 2023, escaped: ${title}, unknown: ${unknown}\n");
+        assertThat(TEMPLATE_FILLER.fillUpTemplate(templates.get(2), () -> params))
+                .isEqualTo("name: Is MyTitle, title: MyTitle of 2023\n");
     }
 
     @Test
@@ -255,6 +333,51 @@ class TemplateFillerTest {
         deleteAllfilesInDirectory(pathToGeneratedRepository);
     }
 
+    @Test
+    void testGenerateAll() throws IOException {
+        Path outputRoot = Files.createTempDirectory("generateAllTest");
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var summary = TEMPLATE_FILLER.generateAll(
+                    List.of(Book.class, Author.class, Category.class),
+                    List.of(Templates.QUARKUS_REPOSITORY, Templates.QUARKUS_SERVICE, Templates.GETTER_SETTER_EQUALS_AND_HASH_CODE),
+                    outputRoot,
+                    executor
+            );
+
+            assertThat(summary.isSuccessful()).isFalse();
+            assertThat(summary.writtenFiles())
+                    .map(path -> outputRoot.relativize(path).toString().replace('\\', '/'))
+                    .containsExactly(
+                            "ch/bytecrowd/lazynerd/repository/BookRepository.java",
+                            "ch/bytecrowd/lazynerd/service/BookService.java",
+                            "ch/bytecrowd/lazynerd/repository/AuthorRepository.java",
+                            "ch/bytecrowd/lazynerd/service/AuthorService.java",
+                            "ch/bytecrowd/lazynerd/repository/CategoryRepository.java",
+                            "ch/bytecrowd/lazynerd/service/CategoryService.java"
+                    );
+            assertThat(summary.failures())
+                    .extracting(GenerationSummary.Failure::entity)
+                    .containsExactly(Book.class, Author.class, Category.class);
+            assertThat(summary.failures())
+                    .allSatisfy(failure -> assertThat(failure.template()).isEqualTo(Templates.GETTER_SETTER_EQUALS_AND_HASH_CODE));
+            assertThat(Files.readString(summary.writtenFiles().get(0))).isEqualTo(generateRepository(Book.class));
+
+            var secondSummary = TEMPLATE_FILLER.generateAll(
+                    List.of(Book.class, Author.class, Category.class),
+                    List.of(Templates.QUARKUS_REPOSITORY, Templates.QUARKUS_SERVICE),
+                    outputRoot,
+                    executor
+            );
+            assertThat(secondSummary.isSuccessful()).isTrue();
+            assertThat(secondSummary.writtenFiles()).isEmpty();
+            assertThat(secondSummary.unchangedFiles()).hasSize(6);
+        } finally {
+            executor.shutdown();
+            deleteAllfilesInDirectory(outputRoot);
+        }
+    }
+
     private void deleteAllfilesInDirectory(Path pathToGeneratedRepository) throws IOException {
         Files.walk(pathToGeneratedRepository)
                 .sorted(Comparator.reverseOrder())
@@ -267,6 +390,20 @@ class TemplateFillerTest {
                 });
     }
 
+    @Test
+    void testRepositoryGenerationToFileReportsResult() throws IOException {
+        Path tempDir = Files.createTempDirectory("generateRepositoryToFileTest");
+        var template = Templates.QUARKUS_REPOSITORY;
+
+        assertThat(TEMPLATE_FILLER.fillUpTemplateAndWriteToFile(tempDir.toString(), template, () -> ParamProvider.paramsFromEntity(Book.class)))
+                .isEqualTo(SourceFileWriter.Result.CREATED);
+        assertThat(TEMPLATE_FILLER.fillUpTemplateAndWriteToFile(tempDir.toString(), template, () -> ParamProvider.paramsFromEntity(Book.class)))
+                .isEqualTo(SourceFileWriter.Result.UNCHANGED);
+        assertThat(TEMPLATE_FILLER.fillUpTemplateAndWriteToFile(tempDir.toString(), template, () -> ParamProvider.paramsFromEntity(Book.class), SourceFileWriter.Mode.ALWAYS))
+                .isEqualTo(SourceFileWriter.Result.WRITTEN);
+        deleteAllfilesInDirectory(tempDir);
+    }
+
     @Test
     void testRepositoryGenerationToFile() throws IOException {
         Path pathToGeneratedRepository = generateRepositoryToFile(Book.class);
@@ -908,56 +1045,3 @@ class TemplateFillerTest {
         );
     }
 }
-
-class Dummy {
-    private String name;
-    private Integer age;
-    private List<Integer> numbers;
-
-    public String getName() {
-        return name;
-    }
-
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    public Dummy name(String name) {
-        setName(name);
-        return this;
-    }
-
-    public Integer getAge() {
-        return age;
-    }
-
-    public void setAge(Integer age) {
-        this.age = age;
-    }
-
-    public Dummy age(Integer age) {
-        setAge(age);
-        return this;
-    }
-
-    public List<Integer> getNumbers() {
-        return numbers;
-    }
-
-    public void setNumbers(List<Integer> numbers) {
-        this.numbers = numbers;
-    }
-
-    public Dummy numbers(List<Integer> numbers) {
-        setNumbers(numbers);
-        return this;
-    }
-
-    @Override
-    public String toString() {
-        return "Dummy{" +
-                "name='" + name + '\'' +
-                ", age=" + age +
-                '}';
-    }
-}
\ No newline at end of file
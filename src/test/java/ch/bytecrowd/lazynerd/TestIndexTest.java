@@ -0,0 +1,45 @@
+package ch.bytecrowd.lazynerd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        var path = TestIndex.pathOf(tempDir.resolve("FooTest.java"));
+        new TestIndex("header", List.of(
+                new TestIndex.Entry("run(int, Map<String, Integer>)", "a1", List.of("testRunWhereAIsNull", "testRunWhereAIs42")),
+                new TestIndex.Entry("stop()", "b2", List.of())
+        )).write(path);
+
+        var index = TestIndex.read(path).orElseThrow();
+
+        assertThat(path.getFileName().toString()).isEqualTo("FooTest.java.lazy-nerd-index");
+        assertThat(index.getHeaderHash()).isEqualTo("header");
+        assertThat(index.getEntries()).extracting(TestIndex.Entry::signature)
+                .containsExactly("run(int, Map<String, Integer>)", "stop()");
+        assertThat(index.get("run(int, Map<String, Integer>)").orElseThrow().testNames())
+                .containsExactly("testRunWhereAIsNull", "testRunWhereAIs42");
+        assertThat(index.get("stop()").orElseThrow().testNames()).isEmpty();
+    }
+
+    @Test
+    void testUnknownOrMissingIndexIsEmpty() throws IOException {
+        var path = tempDir.resolve("FooTest.java.lazy-nerd-index");
+        assertThat(TestIndex.read(path)).isEmpty();
+
+        Files.writeString(path, "#another-format\n");
+        assertThat(TestIndex.read(path)).isEmpty();
+    }
+}
@@ -2,6 +2,12 @@ package ch.bytecrowd.lazynerd;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 class UnitTestGeneratorTest {
 
@@ -85,6 +91,17 @@ class UnitTestGeneratorTest {
                             }
                                                 
                             @Test
+                            // if: (n > 0) && ((n % 2) == 0)
+                            // if: n > 0 && n % 2 != 0
+                            // if: n % 2 == 0
+                            // else: n % 2 == 0
+                            // ternary: q + "" == "0"
+                            // ternary else: q + "" == "0"
+                            // case : throw new IllegalArgumentException(q + " is wierd");
+                            // case 1: System.out.println("its one");break;
+                            // case 2: System.out.println("its two");break;
+                            // case 3: System.out.println("its three");break;
+                            // case 42: System.out.println("its three");break;
                             void testWierdMethodWhereNIs42AndQIsIsMocked() {
                                 // GIVEN
                                 int n = 42;
@@ -97,161 +114,354 @@ class UnitTestGeneratorTest {
                                 assertThat(actual).isNotNull();
                             }
                                                 
+                        }
+                        """);
+    }
+
+    @Test
+    void testBranchesOfOverloadsAreKeptApart() {
+        String generated = new UnitTestGenerator.Builder()
+                .clazz(OverloadedDummyClass.class)
+                .sourcePath("src/test/java")
+                .build()
+                .generate();
+
+        Assertions.assertThat(generated)
+                .containsOnlyOnce("// if: n > 0")
+                .containsOnlyOnce("// ternary else: s.isEmpty()")
+                .doesNotContain("// System.getenv(\"DUMMY\") != null");
+    }
+
+    @Test
+    void testGenerateAllForSourceTree() {
+        var builder = new UnitTestGenerator.Builder()
+                .sourcePath("src/test/java")
+                .typeRegex("ch\\.bytecrowd\\.lazynerd\\.(Overloaded)?DummyClass");
+
+        var generated = builder.build().generateAll().generated();
+
+        Assertions.assertThat(generated)
+                .extracting(UnitTestGenerator.GeneratedTest::className)
+                .containsExactly("DummyClassTest", "OverloadedDummyClassTest");
+        Assertions.assertThat(generated.get(0).relativePath())
+                .isEqualTo(Path.of("ch", "bytecrowd", "lazynerd", "DummyClassTest.java"));
+        Assertions.assertThat(generated.get(0).source())
+                .isEqualTo(builder.clazz(DummyClass.class).build().generate());
+    }
+
+    @Test
+    void testGenerateAllWritesTestsOfClassesOnly(@TempDir Path tempDir) throws IOException {
+        var sources = tempDir.resolve("src");
+        Files.createDirectories(sources.resolve("foo"));
+        Files.writeString(sources.resolve("Plain.java"), "class Plain { String get() { return null; } }");
+        Files.writeString(sources.resolve("foo/Service.java"), "package foo;\nclass Service { int sum(int a) { return a; } }");
+        Files.writeString(sources.resolve("foo/Api.java"), "package foo;\ninterface Api { int sum(int a); }");
+
+        var written = new UnitTestGenerator.Builder()
+                .sourcePath(sources.toString())
+                .build()
+                .generateAll(tempDir.resolve("test"))
+                .generated();
+
+        Assertions.assertThat(written)
+                .extracting(GenerationSummary.GeneratedFile::path)
+                .containsExactlyInAnyOrder(tempDir.resolve("test/PlainTest.java"), tempDir.resolve("test/foo/ServiceTest.java"));
+        Assertions.assertThat(Files.readString(tempDir.resolve("test/foo/ServiceTest.java")))
+                .startsWith("package foo;\n")
+                .contains("void testSumWhereAIsNull()");
+        Assertions.assertThat(Files.readString(tempDir.resolve("test/PlainTest.java")))
+                .startsWith("import ")
+                .contains("target = new Plain();");
+    }
+
+    @Test
+    void testPermutationStrategyLimitsTheArgumentTests(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Wide.java"), "class Wide { int sum(int a, int b, int c, int d, int e, int f) { return a; } }");
+        var builder = new UnitTestGenerator.Builder()
+                .sourcePath(tempDir.toString());
+
+        var exhaustive = builder.build().generateAll().generated().get(0).source();
+        var pairwise = builder.permutationStrategy(PermutationStrategy.pairwise()).build().generateAll().generated().get(0).source();
+
+        Assertions.assertThat(exhaustive.split("void testSumWhere")).hasSize(64 + 1);
+        Assertions.assertThat(pairwise.split("void testSumWhere")).hasSize(6 + 1);
+        Assertions.assertThat(pairwise)
+                .contains("void testSumWhereAIsNullAndBIsNullAndCIsNullAndDIsNullAndEIsNullAndFIsNull()");
+    }
+
+    @Test
+    void testGenerateAllCollectsFailuresPerType(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Counter.java"), """
+                class Counter {
+                    Counter(int start, String[] names) { }
+                    int sum(int[] values, String... more) { return 0; }
+                }
+                """);
+        Files.writeString(tempDir.resolve("Broken.java"), "class Broken { int sum( }");
+
+        var result = new UnitTestGenerator.Builder()
+                .sourcePath(tempDir.toString())
+                .build()
+                .generateAll();
+
+        Assertions.assertThat(result.isSuccessful()).isFalse();
+        Assertions.assertThat(result.failures())
+                .extracting(UnitTestGenerator.Failure::typeName, UnitTestGenerator.Failure::source)
+                .containsExactly(Assertions.tuple("Broken", tempDir.resolve("Broken.java")));
+        Assertions.assertThat(result.generated()).hasSize(1);
+        Assertions.assertThat(result.generated().get(0).source())
+                .contains("    int start = 42;\n")
+                .contains("    String[] names = new String[0];\n")
+                .contains("""
                             @Test
-                            // (n > 0) && ((n % 2) == 0)
-                            void testIfConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
-                            @Test
-                            // n > 0 && n % 2 != 0
-                            void testIfConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
-                            @Test
-                            // n % 2 == 0
-                            void testIfConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
-                            @Test
-                            // n % 2 == 0
-                            void testElseConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
-                            @Test
-                            // q + "" == "0"
-                            void testTernaryConditionInWierdMethod() {
+                            void testSumWhereValuesIsEmptyAndMoreIsEmpty() {
                                 // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
+                                int[] values = new int[0];
+                                String[] more = new String[0];
+                        """)
+                .contains("void testSumWhereValuesIsNullAndMoreIsNull()");
+    }
+
+    @Test
+    void testCodeOfTheTestedSourceIsRenderedVerbatim(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Templated.java"), """
+                class Templated {
+                    String format(String pattern) {
+                        if (pattern.equals("${testName}")) { return "$${y}"; }
+                        switch (pattern) { case "$${y}": return "${x}"; default: return pattern; }
+                    }
+                }
+                """);
+        var builder = new UnitTestGenerator.Builder().sourcePath(tempDir.toString());
+
+        var generated = builder.build().generateAll().generated().get(0).source();
+        var escapedTemplate = builder
+                .testMethodTemplate("""
+                            // $${not a placeholder}
+                        ${branches}    void ${testName}() {
                             }
-                                                
+
+                        """)
+                .build()
+                .generateAll().generated().get(0).source();
+
+        Assertions.assertThat(generated)
+                .contains("    // if: pattern.equals(\"${testName}\")\n")
+                .contains("    // case \"$${y}\": return \"${x}\";\n");
+        Assertions.assertThat(escapedTemplate)
+                .contains("    // ${not a placeholder}\n    // if: pattern.equals(\"${testName}\")\n")
+                .contains("    // case \"$${y}\": return \"${x}\";\n");
+    }
+
+    @Test
+    void testArgumentTestNames(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Mixed.java"), "class Mixed { int run(long count, String name, Runnable task) { return 1; } }");
+
+        var generated = new UnitTestGenerator.Builder()
+                .sourcePath(tempDir.toString())
+                .build()
+                .generateAll().generated().get(0).source();
+
+        Assertions.assertThat(generated)
+                .contains("""
                             @Test
-                            // q + "" == "0"
-                            void testTernaryElseConditionInWierdMethod() {
+                            void testRunWhereCountIs42AndNameIsNullAndTaskIsIsMocked() {
                                 // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
+                                long count = 42;
+                                String name = null;
+                                Runnable task = mock(Runnable.class);
+                        """)
+                .contains("void testRunWhereCountIsNullAndNameIs42AndTaskIsNull()");
+    }
+
+    @Test
+    void testParameterizedTests() {
+        String generated = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath("src/test/java")
+                .methodRegex("wierdMethod")
+                .generateTestsForIfStatements(false)
+                .generateParameterizedTests(true)
+                .build()
+                .generate();
+
+        Assertions.assertThat(generated)
+                .contains("import org.junit.jupiter.params.ParameterizedTest;\n")
+                .contains("""
+                            @ParameterizedTest
+                            @MethodSource("wierdMethodArguments")
+                            void testWierdMethod(Integer n, Point q) {
                                 // WHEN
                                 var actual = target.wierdMethod(n, q);
-                                                
+
                                 // THEN
                                 assertThat(actual).isNotNull();
                             }
-                                                
-                            @Test
-                            // case : throw new IllegalArgumentException(q + " is wierd");
-                            void testSwitchCaseConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
+
+                            static Stream<Arguments> wierdMethodArguments() {
+                                return Stream.of(
+                                        arguments(null, null),
+                                        arguments(42, null),
+                                        arguments(null, mock(Point.class)),
+                                        arguments(42, mock(Point.class))
+                                );
                             }
-                                                
+                        """)
+                .doesNotContain("@Test\n    void testWierdMethodWhere");
+    }
+
+    @Test
+    void testDuplicatedTestsAreMergedAndNamesAreUnique(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Overloads.java"), """
+                class Overloads {
+                    int run(int a) { if (a > 0) { return 1; } return a > 1 ? 2 : 3; }
+                    int run(long a) { return 0; }
+                }
+                """);
+
+        var generated = new UnitTestGenerator.Builder()
+                .sourcePath(tempDir.toString())
+                .permutationStrategy(PermutationStrategy.capped(1))
+                .build()
+                .generateAll().generated().get(0).source();
+
+        Assertions.assertThat(generated)
+                .containsOnlyOnce("void testRunWhereAIsNull()")
+                .containsOnlyOnce("void testRunWhereAIsNull2()")
+                .containsOnlyOnce("""
                             @Test
-                            // case 1: System.out.println("its one");break;
-                            void testSwitchCaseConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
+                            // if: a > 0
+                            // ternary: a > 1
+                            // ternary else: a > 1
+                            void testIfConditionInRun() {
+                        """)
+                .doesNotContain("void testTernaryConditionInRun");
+    }
+
+    @Test
+    void testGenerateToWriterAndFile(@TempDir Path tempDir) throws IOException {
+        var generator = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath("src/test/java")
+                .build();
+        var expected = generator.generate();
+
+        var writer = new StringWriter();
+        generator.generate(writer);
+        var created = generator.generateTo(tempDir);
+        var unchanged = generator.generateTo(tempDir);
+
+        Assertions.assertThat(writer.toString()).isEqualTo(expected);
+        Assertions.assertThat(created.path()).isEqualTo(tempDir.resolve("ch/bytecrowd/lazynerd/DummyClassTest.java"));
+        Assertions.assertThat(created.result()).isEqualTo(SourceFileWriter.Result.CREATED);
+        Assertions.assertThat(unchanged.result()).isEqualTo(SourceFileWriter.Result.UNCHANGED);
+        Assertions.assertThat(Files.readString(created.path())).isEqualTo(expected);
+    }
+
+    @Test
+    void testCustomTestMethodTemplate() {
+        String generated = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath("src/test/java")
+                .generateTestsForIfStatements(false)
+                .testMethodTemplate("""
                             @Test
-                            // case 2: System.out.println("its two");break;
-                            void testSwitchCaseConditionInWierdMethod() {
-                                // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
+                            void ${testName}() {
+                        ${arguments}
+                        ${invocation}
+                                assertThatNoException();
                             }
-                                                
+
+                        """)
+                .build()
+                .generate();
+
+        Assertions.assertThat(generated)
+                .contains("""
                             @Test
-                            // case 3: System.out.println("its three");break;
-                            void testSwitchCaseConditionInWierdMethod() {
-                                // GIVEN
+                            void testWierdMethodWhereNIs42AndQIsNull() {
                                 int n = 42;
-                                Point q = mock(Point.class);
-                                                
-                                // WHEN
+                                Point q = null;
                                 var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
+                                assertThatNoException();
                             }
-                                                
+                        """)
+                .doesNotContain("// GIVEN");
+    }
+
+    @Test
+    void testGenerateIncrementally(@TempDir Path tempDir) throws IOException {
+        var sourceFile = tempDir.resolve("main/ch/bytecrowd/lazynerd/DummyClass.java");
+        var testRoot = tempDir.resolve("test");
+        var testFile = testRoot.resolve("ch/bytecrowd/lazynerd/DummyClassTest.java");
+        var source = Files.readString(Path.of("src/test/java/ch/bytecrowd/lazynerd/DummyClass.java"));
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, source);
+        var generator = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath(tempDir.resolve("main").toString())
+                .build();
+
+        Assertions.assertThat(generator.generateIncrementally(testRoot).result()).isEqualTo(SourceFileWriter.Result.CREATED);
+        Assertions.assertThat(Files.readString(testFile)).isEqualTo(generator.generate());
+        Assertions.assertThat(testRoot.resolve("ch/bytecrowd/lazynerd/DummyClassTest.java.lazy-nerd-index")).exists();
+        Assertions.assertThat(generator.generateIncrementally(testRoot).result()).isEqualTo(SourceFileWriter.Result.UNCHANGED);
+
+        var ownTest = """
+                    @Test
+                    void myOwnTest() {
+                    }
+
+                """;
+        var init = "        target = new DummyClass(a, b, c);\n    }\n\n";
+        Files.writeString(testFile, Files.readString(testFile).replace(init, init + ownTest));
+        Files.writeString(sourceFile, source
+                .replace("String s = q", "if (q == null) {\n            return \"\";\n        }\n        String s = q")
+                .replaceFirst("}\\s*$", "    public int added(int x) {\n        return x;\n    }\n}\n"));
+
+        Assertions.assertThat(generator.generateIncrementally(testRoot).result()).isEqualTo(SourceFileWriter.Result.WRITTEN);
+        var updated = Files.readString(testFile);
+        Assertions.assertThat(updated)
+                .containsOnlyOnce("void myOwnTest()")
+                .containsOnlyOnce("// if: q == null")
+                .containsOnlyOnce("void testAddedWhereXIsNull()");
+        Assertions.assertThat(updated.replace(ownTest, "")).isEqualTo(generator.generate());
+
+        Files.writeString(sourceFile, source);
+        Assertions.assertThat(generator.generateIncrementally(testRoot).result()).isEqualTo(SourceFileWriter.Result.WRITTEN);
+        Assertions.assertThat(Files.readString(testFile))
+                .contains("void myOwnTest()")
+                .doesNotContain("testAdded")
+                .doesNotContain("// if: q == null");
+        Assertions.assertThat(Files.readString(testFile).replace(ownTest, "")).isEqualTo(generator.generate());
+    }
+
+    @Test
+    void testSignaturesFromClass() {
+        String generated = new UnitTestGenerator.Builder()
+                .clazz(DummyClass.class)
+                .sourcePath("does/not/exist")
+                .generateTestsForIfStatements(false)
+                .signaturesFromClass(true)
+                .build()
+                .generate();
+
+        Assertions.assertThat(generated)
+                .contains("""
+                            String arg0 = "42";
+                            String arg1 = "42";
+                            String arg2 = "42";
+                        """)
+                .contains("        target = new DummyClass(arg0, arg1, arg2);\n")
+                .contains("""
                             @Test
-                            // case 42: System.out.println("its three");break;
-                            void testSwitchCaseConditionInWierdMethod() {
+                            void testWierdMethodWhereArg0Is42AndArg1IsIsMocked() {
                                 // GIVEN
-                                int n = 42;
-                                Point q = mock(Point.class);
-                                                
+                                int arg0 = 42;
+                                Point arg1 = mock(Point.class);
+
                                 // WHEN
-                                var actual = target.wierdMethod(n, q);
-                                                
-                                // THEN
-                                assertThat(actual).isNotNull();
-                            }
-                                                
-                        }
+                                var actual = target.wierdMethod(arg0, arg1);
                         """);
     }
-}
\ No newline at end of file
+}
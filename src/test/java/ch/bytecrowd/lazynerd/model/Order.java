@@ -0,0 +1,30 @@
+package ch.bytecrowd.lazynerd.model;
+
+import javax.persistence.*;
+import java.util.*;
+
+public class Order {
+
+    @Id
+    private Key id;
+
+    private UUID reference;
+
+    @ManyToOne
+    private Author customer;
+
+    @OneToMany
+    private List<Line> lines;
+
+    private Map.Entry<String, Integer> discount;
+
+    public static class Key {
+
+        private UUID value;
+    }
+
+    public static class Line {
+
+        private String article;
+    }
+}